@@ -0,0 +1,32 @@
+package manager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AtomicIdAllocator implements IdAllocator {
+    private final AtomicInteger nextId;
+
+    public AtomicIdAllocator() {
+        this(1);
+    }
+
+    public AtomicIdAllocator(int firstId) {
+        this.nextId = new AtomicInteger(firstId);
+    }
+
+    @Override
+    public int next() {
+        return nextId.getAndIncrement();
+    }
+
+    @Override
+    public void advancePast(int id) {
+        if (id >= nextId.get()) {
+            nextId.accumulateAndGet(id + 1, Math::max);
+        }
+    }
+
+    @Override
+    public int getHighWaterMark() {
+        return nextId.get();
+    }
+}
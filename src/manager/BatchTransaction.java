@@ -0,0 +1,150 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+class BatchTransaction {
+    private final TaskManager target;
+    private final IntFunction<Task> lookup;
+    private final Deque<Runnable> undo = new ArrayDeque<>();
+    private final Set<Integer> touched = new LinkedHashSet<>();
+    private final List<Integer> removed = new ArrayList<>();
+
+    BatchTransaction(TaskManager target, IntFunction<Task> lookup) {
+        this.target = target;
+        this.lookup = lookup;
+    }
+
+    void run(TaskBatch batch) {
+        for (TaskBatch.Op op : batch.getOps()) {
+            switch (op.kind) {
+                case CREATE -> create(op.task);
+                case UPDATE -> update(op.task);
+                case DELETE -> delete(op.id);
+            }
+        }
+    }
+
+    void rollback() {
+        while (!undo.isEmpty()) {
+            undo.pop().run();
+        }
+        removed.clear();
+    }
+
+    List<Task> getChanged() {
+        List<Task> changed = new ArrayList<>(touched.size());
+        for (int id : touched) {
+            Task task = lookup.apply(id);
+            if (task != null && !(task instanceof Epic)) {
+                changed.add(task);
+            }
+        }
+        return changed;
+    }
+
+    List<Integer> getRemoved() {
+        return removed;
+    }
+
+    private void create(Task task) {
+        if (task.getId() != 0 && lookup.apply(task.getId()) != null) {
+            throw new IllegalArgumentException("Задача с id " + task.getId() + " уже существует");
+        }
+        put(task, true);
+        touched.add(task.getId());
+        undo.push(() -> remove(task));
+    }
+
+    private void update(Task task) {
+        Task before = lookup.apply(task.getId());
+        if (before == null || before.getType() != task.getType()) {
+            throw new IllegalArgumentException("Задача с id " + task.getId() + " не существует");
+        }
+        Task saved = before == task ? InMemoryHistoryManager.copyOf(before) : before;
+        Runnable restoreOrder = before instanceof SubTask subtask ? orderOf(subtask.getEpicId()) : () -> { };
+        put(task, false);
+        touched.add(task.getId());
+        undo.push(() -> {
+            put(saved, false);
+            restoreOrder.run();
+        });
+    }
+
+    private void delete(int id) {
+        Task before = lookup.apply(id);
+        if (before == null) return;
+        if (before instanceof Epic epic) {
+            List<SubTask> children = new ArrayList<>(epic.getSubTaskCount());
+            epic.forEachSubTaskId(subtaskId -> {
+                if (lookup.apply(subtaskId) instanceof SubTask subtask) {
+                    children.add(subtask);
+                }
+            });
+            remove(epic);
+            children.forEach(subtask -> removed.add(subtask.getId()));
+            undo.push(() -> {
+                target.createEpic(epic);
+                children.forEach(target::createSubTask);
+            });
+        } else if (before instanceof SubTask subtask) {
+            Runnable restoreOrder = orderOf(subtask.getEpicId());
+            remove(subtask);
+            undo.push(() -> {
+                target.createSubTask(subtask);
+                restoreOrder.run();
+            });
+        } else {
+            remove(before);
+            undo.push(() -> target.createTask(before));
+        }
+        removed.add(id);
+    }
+
+    private Runnable orderOf(int epicId) {
+        if (!(lookup.apply(epicId) instanceof Epic epic)) return () -> { };
+        List<Integer> order = epic.getSubTaskIds();
+        return () -> {
+            if (lookup.apply(epicId) instanceof Epic current) {
+                current.setSubTaskIds(order);
+            }
+        };
+    }
+
+    private void put(Task task, boolean created) {
+        if (task instanceof Epic epic) {
+            if (created) {
+                target.createEpic(epic);
+            } else {
+                target.updateEpic(epic);
+            }
+        } else if (task instanceof SubTask subtask) {
+            if (created) {
+                target.createSubTask(subtask);
+            } else {
+                target.updateSubTask(subtask);
+            }
+        } else if (created) {
+            target.createTask(task);
+        } else {
+            target.updateTask(task);
+        }
+    }
+
+    private void remove(Task task) {
+        switch (task.getType()) {
+            case TASK -> target.deleteTaskById(task.getId());
+            case EPIC -> target.deleteEpicById(task.getId());
+            case SUBTASK -> target.deleteSubTaskById(task.getId());
+        }
+    }
+}
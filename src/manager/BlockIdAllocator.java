@@ -0,0 +1,102 @@
+package manager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BlockIdAllocator implements IdAllocator {
+    private static final ConcurrentMap<Path, Object> LEASE_LOCKS = new ConcurrentHashMap<>();
+
+    private final File leaseFile;
+    private final Object leaseLock;
+    private final int blockSize;
+    private volatile Block block;
+
+    private static final class Block {
+        final AtomicInteger cursor;
+        final int end;
+
+        Block(int start, int end) {
+            this.cursor = new AtomicInteger(start);
+            this.end = end;
+        }
+    }
+
+    public BlockIdAllocator(File leaseFile, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Размер блока id должен быть положительным");
+        }
+        this.leaseFile = leaseFile;
+        this.leaseLock = LEASE_LOCKS.computeIfAbsent(leaseFile.toPath().toAbsolutePath().normalize(),
+                path -> new Object());
+        this.blockSize = blockSize;
+        this.block = new Block(0, 0);
+    }
+
+    @Override
+    public int next() {
+        while (true) {
+            Block current = block;
+            int id = current.cursor.getAndIncrement();
+            if (id < current.end) return id;
+            refill(current, 0);
+        }
+    }
+
+    @Override
+    public void advancePast(int id) {
+        while (true) {
+            Block current = block;
+            if (id < current.end) {
+                current.cursor.accumulateAndGet(id + 1, Math::max);
+                return;
+            }
+            refill(current, id + 1);
+        }
+    }
+
+    @Override
+    public int getHighWaterMark() {
+        Block current = block;
+        return Math.min(current.cursor.get(), current.end);
+    }
+
+    private synchronized void refill(Block exhausted, int atLeast) {
+        if (block != exhausted) return;
+        int start = reserve(atLeast);
+        block = new Block(start, start + blockSize);
+    }
+
+    private int reserve(int atLeast) {
+        synchronized (leaseLock) {
+            return reserveLocked(atLeast);
+        }
+    }
+
+    private int reserveLocked(int atLeast) {
+        try (FileChannel channel = FileChannel.open(leaseFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+                int stored = channel.read(buffer, 0) == Integer.BYTES ? buffer.flip().getInt() : 1;
+                int start = Math.max(stored, Math.max(atLeast, 1));
+                buffer.clear().putInt(start + blockSize).flip();
+                channel.write(buffer, 0);
+                channel.force(false);
+                return start;
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка резервирования блока id: " + leaseFile.getPath(), e);
+        }
+    }
+}
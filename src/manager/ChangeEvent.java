@@ -0,0 +1,42 @@
+package manager;
+
+import model.Task;
+import util.ChangeType;
+import util.TaskType;
+
+public final class ChangeEvent {
+    private final long sequence;
+    private final ChangeType type;
+    private final Task task;
+
+    public ChangeEvent(long sequence, ChangeType type, Task task) {
+        this.sequence = sequence;
+        this.type = type;
+        this.task = task;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public int getId() {
+        return task.getId();
+    }
+
+    public TaskType getTaskType() {
+        return task.getType();
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeEvent{" + "sequence=" + sequence + ", type=" + type + ", task=" + task + '}';
+    }
+}
@@ -0,0 +1,162 @@
+package manager;
+
+import util.ChangeType;
+import util.TaskConverterCsv;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class ChangeJournal implements AutoCloseable {
+    private static final int INDEX_INTERVAL = 64;
+
+    private final File file;
+    private final Charset charset = Charset.defaultCharset();
+    private long[] indexedSequences = new long[16];
+    private long[] indexedOffsets = new long[16];
+    private int indexSize;
+    private long records;
+    private long length;
+    private long lastSequence;
+    private OutputStream out;
+
+    ChangeJournal(File file) {
+        this.file = file;
+        if (!file.exists()) return;
+        length = scan(0, file.length(), (offset, record) -> {
+            long sequence = sequenceOf(record);
+            if (sequence > 0) {
+                index(offset, sequence);
+            }
+            return true;
+        });
+        if (length < file.length()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(length);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка восстановления журнала: " + file.getPath(), e);
+            }
+        }
+    }
+
+    synchronized void append(ChangeEvent event) {
+        byte[] record = (event.getSequence() + "," + event.getType() + "," + TaskConverterCsv.toString(event.getTask())
+                + "\n").getBytes(charset);
+        try {
+            if (out == null) {
+                out = new BufferedOutputStream(new FileOutputStream(file, true), 1 << 16);
+            }
+            out.write(record);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал: " + file.getPath(), e);
+        }
+        index(length, event.getSequence());
+        length += record.length;
+    }
+
+    List<ChangeEvent> readAfter(long sequence, long upTo, int limit) {
+        long from;
+        long to;
+        synchronized (this) {
+            flush();
+            int slot = floor(sequence + 1);
+            from = slot < 0 ? 0 : indexedOffsets[slot];
+            to = length;
+        }
+        List<ChangeEvent> events = new ArrayList<>();
+        scan(from, to, (offset, record) -> {
+            int first = record.indexOf(',');
+            int second = record.indexOf(',', first + 1);
+            if (first < 0 || second < 0) return true;
+            long recordSequence = Long.parseLong(record.substring(0, first));
+            if (recordSequence <= sequence) return true;
+            if (recordSequence > upTo) return false;
+            events.add(new ChangeEvent(recordSequence, ChangeType.valueOf(record.substring(first + 1, second)),
+                    TaskConverterCsv.fromString(record.substring(second + 1))));
+            return events.size() < limit;
+        });
+        return events;
+    }
+
+    synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал: " + file.getPath(), e);
+        }
+        out = null;
+    }
+
+    private void flush() {
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал: " + file.getPath(), e);
+        }
+    }
+
+    private void index(long offset, long sequence) {
+        if (records++ % INDEX_INTERVAL == 0) {
+            if (indexSize == indexedSequences.length) {
+                indexedSequences = Arrays.copyOf(indexedSequences, indexSize * 2);
+                indexedOffsets = Arrays.copyOf(indexedOffsets, indexSize * 2);
+            }
+            indexedSequences[indexSize] = sequence;
+            indexedOffsets[indexSize++] = offset;
+        }
+        lastSequence = sequence;
+    }
+
+    private int floor(long sequence) {
+        int slot = Arrays.binarySearch(indexedSequences, 0, indexSize, sequence);
+        return slot >= 0 ? slot : -slot - 2;
+    }
+
+    private static long sequenceOf(String record) {
+        int comma = record.indexOf(',');
+        if (comma <= 0) return -1;
+        try {
+            return Long.parseLong(record.substring(0, comma));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private long scan(long from, long to, RecordVisitor visitor) {
+        try (FileInputStream input = new FileInputStream(file)) {
+            input.getChannel().position(from);
+            InputStream in = new BufferedInputStream(input, 1 << 16);
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            long position = from;
+            long start = from;
+            int b;
+            while (position < to && (b = in.read()) >= 0) {
+                position++;
+                if (b != '\n') {
+                    record.write(b);
+                    continue;
+                }
+                if (record.size() > 0 && !visitor.visit(start, record.toString(charset))) break;
+                record.reset();
+                start = position;
+            }
+            return start;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала: " + file.getPath(), e);
+        }
+    }
+
+    private interface RecordVisitor {
+        boolean visit(long offset, String record);
+    }
+}
@@ -0,0 +1,6 @@
+package manager;
+
+public interface ChangeListener {
+
+    void onChange(ChangeEvent event);
+}
@@ -0,0 +1,239 @@
+package manager;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ChangePublisher implements Flow.Publisher<ChangeEvent>, ChangeListener, AutoCloseable {
+    private final int bufferSize;
+    private final ChangeEvent[] ring;
+    private final ChangeJournal journal;
+    private final Executor executor;
+    private final List<ChangeSubscription> subscriptions = new CopyOnWriteArrayList<>();
+    private long latest;
+    private long offset = -1;
+    private boolean closed;
+
+    public ChangePublisher(int bufferSize, int replayCapacity) {
+        this(bufferSize, replayCapacity, null, ForkJoinPool.commonPool());
+    }
+
+    public ChangePublisher(int bufferSize, int replayCapacity, File journalFile) {
+        this(bufferSize, replayCapacity, journalFile, ForkJoinPool.commonPool());
+    }
+
+    public ChangePublisher(int bufferSize, int replayCapacity, File journalFile, Executor executor) {
+        if (bufferSize <= 0 || replayCapacity <= 0) {
+            throw new IllegalArgumentException("Размеры буферов должны быть положительными");
+        }
+        this.bufferSize = bufferSize;
+        this.ring = new ChangeEvent[replayCapacity];
+        this.journal = journalFile != null ? new ChangeJournal(journalFile) : null;
+        this.executor = executor;
+        this.latest = journal != null ? journal.lastSequence() : 0;
+    }
+
+    public synchronized long getLatestSequence() {
+        return latest;
+    }
+
+    @Override
+    public void onChange(ChangeEvent event) {
+        synchronized (this) {
+            if (closed) return;
+            if (offset < 0) {
+                offset = Math.max(0, latest - (event.getSequence() - 1));
+            }
+            ChangeEvent stamped = offset == 0 ? event
+                    : new ChangeEvent(offset + event.getSequence(), event.getType(), event.getTask());
+            if (stamped.getSequence() <= latest) return;
+            if (journal != null) {
+                journal.append(stamped);
+            }
+            latest = stamped.getSequence();
+            ring[(int) (latest % ring.length)] = stamped;
+            for (ChangeSubscription subscription : subscriptions) {
+                subscription.offer(stamped);
+            }
+        }
+        subscriptions.forEach(ChangeSubscription::schedule);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ChangeEvent> subscriber) {
+        register(new ChangeSubscription(subscriber), -1);
+    }
+
+    public void subscribe(Flow.Subscriber<? super ChangeEvent> subscriber, long afterSequence) {
+        if (afterSequence < 0) {
+            throw new IllegalArgumentException("Номер события не может быть отрицательным");
+        }
+        register(new ChangeSubscription(subscriber), afterSequence);
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        if (journal != null) {
+            journal.close();
+        }
+        subscriptions.forEach(ChangeSubscription::schedule);
+    }
+
+    private void register(ChangeSubscription subscription, long afterSequence) {
+        subscription.subscriber.onSubscribe(subscription);
+        synchronized (this) {
+            if (afterSequence < 0) {
+                subscription.position = latest;
+            } else {
+                subscription.position = afterSequence;
+                subscription.lagging = true;
+            }
+            subscriptions.add(subscription);
+        }
+        subscription.schedule();
+    }
+
+    private ChangeEvent fromRing(long sequence) {
+        ChangeEvent event = ring[(int) (sequence % ring.length)];
+        return event != null && event.getSequence() == sequence ? event : null;
+    }
+
+    private final class ChangeSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ChangeEvent> subscriber;
+        private final ArrayDeque<ChangeEvent> queue = new ArrayDeque<>();
+        private final ArrayDeque<ChangeEvent> replay = new ArrayDeque<>();
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private long position;
+        private boolean lagging;
+        private volatile boolean done;
+        private volatile Throwable error;
+
+        ChangeSubscription(Flow.Subscriber<? super ChangeEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void offer(ChangeEvent event) {
+            if (lagging) return;
+            if (queue.size() >= bufferSize) {
+                queue.clear();
+                lagging = true;
+                return;
+            }
+            queue.add(event);
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("Запрошенное количество событий должно быть положительным");
+            } else {
+                demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+            subscriptions.remove(this);
+        }
+
+        void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                try {
+                    deliver();
+                } catch (RuntimeException e) {
+                    terminate(e);
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver() {
+            while (!done) {
+                if (error != null) {
+                    terminate(error);
+                    return;
+                }
+                ChangeEvent next = demand.get() > 0 ? next() : null;
+                if (next == null) {
+                    if (isCompleted()) {
+                        done = true;
+                        subscriptions.remove(this);
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                if (demand.get() != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+                subscriber.onNext(next);
+            }
+        }
+
+        private ChangeEvent next() {
+            if (!replay.isEmpty()) {
+                return replay.poll();
+            }
+            long upTo;
+            synchronized (ChangePublisher.this) {
+                if (!lagging) {
+                    ChangeEvent event = queue.poll();
+                    if (event != null) {
+                        position = event.getSequence();
+                    }
+                    return event;
+                }
+                if (position >= latest) {
+                    lagging = false;
+                    return null;
+                }
+                ChangeEvent event = fromRing(position + 1);
+                if (event != null) {
+                    position++;
+                    return event;
+                }
+                upTo = latest;
+            }
+            List<ChangeEvent> events = journal != null ? journal.readAfter(position, upTo, bufferSize) : List.of();
+            if (events.isEmpty() || events.get(0).getSequence() != position + 1) {
+                throw new IllegalStateException("События после номера " + position + " больше недоступны");
+            }
+            replay.addAll(events);
+            synchronized (ChangePublisher.this) {
+                position = events.get(events.size() - 1).getSequence();
+            }
+            return replay.poll();
+        }
+
+        private boolean isCompleted() {
+            synchronized (ChangePublisher.this) {
+                return closed && !lagging && queue.isEmpty() && replay.isEmpty();
+            }
+        }
+
+        private void terminate(Throwable cause) {
+            if (done) return;
+            done = true;
+            subscriptions.remove(this);
+            subscriber.onError(cause);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+public class ConcurrentTaskManager implements TaskManager {
+    private final StampedLock lock = new StampedLock();
+    private final HistoryManager historyManager;
+    private final InMemoryTaskManager delegate;
+
+    public ConcurrentTaskManager(HistoryManager historyManager) {
+        this.historyManager = new SynchronizedHistoryManager(historyManager);
+        this.delegate = new InMemoryTaskManager(this.historyManager) {
+            @Override
+            protected void addToHistory(Task task) {
+            }
+        };
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) throw e;
+            }
+        }
+        return readLocked(reader);
+    }
+
+    private <T> T readLocked(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <T> T write(Supplier<T> writer) {
+        long stamp = lock.writeLock();
+        try {
+            return writer.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void write(Runnable writer) {
+        long stamp = lock.writeLock();
+        try {
+            writer.run();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private <T extends Task> Optional<T> view(int id, Supplier<Optional<T>> lookup) {
+        long stamp = lock.tryOptimisticRead();
+        Optional<T> task = read(lookup);
+        task.ifPresent(historyManager::add);
+        if (task.isPresent() && !lock.validate(stamp)) {
+            readLocked(() -> {
+                if (delegate.getAnyById(id).isEmpty()) {
+                    historyManager.remove(id);
+                }
+                return null;
+            });
+        }
+        return task;
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        delegate.addChangeListener(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        delegate.removeChangeListener(listener);
+    }
+
+    public boolean hasIntersection(Task task) {
+        return readLocked(() -> delegate.hasIntersection(task));
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return readLocked(delegate::getAllTasks);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(delegate::deleteAllTasks);
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        return view(id, () -> delegate.getTaskById(id));
+    }
+
+    @Override
+    public void createTask(Task task) {
+        write(() -> delegate.createTask(task));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> delegate.updateTask(task));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        write(() -> delegate.deleteTaskById(id));
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return readLocked(delegate::getAllEpics);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(delegate::deleteAllEpics);
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        return view(id, () -> delegate.getEpicById(id));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        write(() -> delegate.createEpic(epic));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        write(() -> delegate.updateEpic(epic));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        write(() -> delegate.deleteEpicById(id));
+    }
+
+    @Override
+    public List<SubTask> getAllSubTasks() {
+        return readLocked(delegate::getAllSubTasks);
+    }
+
+    @Override
+    public void deleteAllSubTasks() {
+        write(delegate::deleteAllSubTasks);
+    }
+
+    @Override
+    public Optional<SubTask> getSubTaskById(int id) {
+        return view(id, () -> delegate.getSubTaskById(id));
+    }
+
+    @Override
+    public void createSubTask(SubTask subtask) {
+        write(() -> delegate.createSubTask(subtask));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subtask) {
+        write(() -> delegate.updateSubTask(subtask));
+    }
+
+    @Override
+    public void deleteSubTaskById(int id) {
+        write(() -> delegate.deleteSubTaskById(id));
+    }
+
+    @Override
+    public List<SubTask> getSubTasksOfEpic(int epicId) {
+        return readLocked(() -> delegate.getSubTasksOfEpic(epicId));
+    }
+
+    @Override
+    public Optional<Task> getAnyById(int id) {
+        return view(id, () -> delegate.getAnyById(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return readLocked(delegate::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return readLocked(() -> delegate.getPrioritizedTasks(from, to));
+    }
+
+    @Override
+    public List<Task> getNextPrioritizedTasks(LocalDateTime after, int limit) {
+        return readLocked(() -> delegate.getNextPrioritizedTasks(after, limit));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return readLocked(() -> delegate.findFreeSlot(from, duration));
+    }
+
+    @Override
+    public void createTaskAutoScheduled(Task task, LocalDateTime from) {
+        write(() -> delegate.createTaskAutoScheduled(task, from));
+    }
+
+    @Override
+    public List<Task> shiftAfter(LocalDateTime from, Duration delta) {
+        return write(() -> delegate.shiftAfter(from, delta));
+    }
+
+    @Override
+    public void apply(TaskBatch batch) {
+        write(() -> delegate.apply(batch));
+    }
+
+    @Override
+    public LocalDateTime getEpicStartTime(int epicId) {
+        return readLocked(() -> delegate.getEpicStartTime(epicId));
+    }
+
+    @Override
+    public LocalDateTime getEpicEndTime(int epicId) {
+        return readLocked(() -> delegate.getEpicEndTime(epicId));
+    }
+
+    @Override
+    public Duration getEpicDuration(int epicId) {
+        return readLocked(() -> delegate.getEpicDuration(epicId));
+    }
+}
@@ -0,0 +1,94 @@
+package manager;
+
+import model.SubTask;
+import util.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+class EpicAggregate {
+    private static final class Contribution {
+        final TaskStatus status;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final Duration duration;
+
+        Contribution(SubTask subtask) {
+            this.status = subtask.getStatus();
+            this.start = subtask.getStartTime();
+            this.end = subtask.getEndTime();
+            this.duration = subtask.getDuration();
+        }
+    }
+
+    private final Map<Integer, Contribution> contributions = new HashMap<>();
+    private final int[] statusCounts = new int[TaskStatus.values().length];
+    private final TreeMap<LocalDateTime, Integer> starts = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> ends = new TreeMap<>();
+    private Duration duration = Duration.ZERO;
+
+    void add(SubTask subtask) {
+        remove(subtask.getId());
+        Contribution contribution = new Contribution(subtask);
+        contributions.put(subtask.getId(), contribution);
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]++;
+        }
+        increment(starts, contribution.start);
+        increment(ends, contribution.end);
+        if (contribution.duration != null) {
+            duration = duration.plus(contribution.duration);
+        }
+    }
+
+    void remove(int subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) return;
+        if (contribution.status != null) {
+            statusCounts[contribution.status.ordinal()]--;
+        }
+        decrement(starts, contribution.start);
+        decrement(ends, contribution.end);
+        if (contribution.duration != null) {
+            duration = duration.minus(contribution.duration);
+        }
+    }
+
+    TaskStatus getStatus() {
+        int size = contributions.size();
+        if (size == 0 || statusCounts[TaskStatus.NEW.ordinal()] == size) {
+            return TaskStatus.NEW;
+        }
+        if (statusCounts[TaskStatus.DONE.ordinal()] == size) {
+            return TaskStatus.DONE;
+        }
+        return TaskStatus.IN_PROGRESS;
+    }
+
+    LocalDateTime getStartTime() {
+        return starts.isEmpty() ? null : starts.firstKey();
+    }
+
+    LocalDateTime getEndTime() {
+        return ends.isEmpty() ? null : ends.lastKey();
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    private static void increment(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        if (time != null) {
+            times.merge(time, 1, Integer::sum);
+        }
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        if (time != null) {
+            times.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import util.IntLinkedSet;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class EventLoopTaskManager implements TaskManager, AutoCloseable {
+    private final InMemoryTaskManager state;
+    private final Runnable onClose;
+    private final IntLinkedSet changed = new IntLinkedSet();
+    private final BlockingQueue<Command<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile TaskSnapshot snapshot = TaskSnapshot.EMPTY;
+    private volatile boolean closed;
+
+    public EventLoopTaskManager() {
+        this(new InMemoryTaskManager(new InMemoryHistoryManager()), () -> {
+        });
+    }
+
+    public EventLoopTaskManager(FileBackedTaskManager state) {
+        this(state, state::close);
+    }
+
+    private EventLoopTaskManager(InMemoryTaskManager state, Runnable onClose) {
+        this.state = state;
+        this.onClose = onClose;
+        for (Task task : state.items.values()) {
+            changed.add(task.getId());
+        }
+        state.observeChanges(changed::add);
+        publish();
+        this.writer = new Thread(this::loop, "kanban-event-loop");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static final class Command<T> {
+        final Function<TaskManager, T> operation;
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        private T value;
+        private Throwable failure;
+
+        Command(Function<TaskManager, T> operation) {
+            this.operation = operation;
+        }
+
+        void run(TaskManager state) {
+            try {
+                value = operation.apply(state);
+            } catch (Throwable e) {
+                failure = e;
+            }
+        }
+
+        void complete() {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(value);
+            }
+        }
+
+        void reject() {
+            result.completeExceptionally(new IllegalStateException("Менеджер задач закрыт"));
+        }
+    }
+
+    public TaskSnapshot snapshot() {
+        return current();
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        state.addChangeListener(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        state.removeChangeListener(listener);
+    }
+
+    public <T> CompletableFuture<T> submit(Function<TaskManager, T> operation) {
+        Command<T> command = new Command<>(operation);
+        if (Thread.currentThread() == writer) {
+            command.run(state);
+            command.complete();
+            return command.result;
+        }
+        if (closed) {
+            command.reject();
+            return command.result;
+        }
+        queue.add(command);
+        if (closed && queue.remove(command)) {
+            command.reject();
+        }
+        return command.result;
+    }
+
+    public CompletableFuture<Void> execute(Consumer<TaskManager> operation) {
+        return submit(manager -> {
+            operation.accept(manager);
+            return null;
+        });
+    }
+
+    private void loop() {
+        List<Command<?>> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch);
+            int executed = 0;
+            while (executed < batch.size() && batch.get(executed).operation != null) {
+                batch.get(executed++).run(state);
+            }
+            running = executed == batch.size();
+            publish();
+            for (int i = 0; i < batch.size(); i++) {
+                if (i < executed) {
+                    batch.get(i).complete();
+                } else if (batch.get(i).operation != null) {
+                    batch.get(i).reject();
+                }
+            }
+            batch.clear();
+        }
+        try {
+            onClose.run();
+        } catch (RuntimeException e) {
+            System.err.println("Ошибка цикла обработки задач: " + e.getMessage());
+        }
+        for (Command<?> rejected; (rejected = queue.poll()) != null; ) {
+            rejected.reject();
+        }
+    }
+
+    private void publish() {
+        if (changed.isEmpty()) return;
+        TaskSnapshot base = snapshot;
+        Republisher republisher = new Republisher(base, state);
+        changed.forEach(republisher::apply);
+        changed.clear();
+        snapshot = republisher.build(base.history);
+    }
+
+    private TaskSnapshot current() {
+        if (Thread.currentThread() == writer) {
+            publish();
+        }
+        return snapshot;
+    }
+
+    private <T extends Task> Optional<T> view(Function<TaskSnapshot, Optional<T>> lookup) {
+        Optional<T> task = lookup.apply(current());
+        task.ifPresent(found -> record(found.getId()));
+        return task;
+    }
+
+    private void record(int id) {
+        Command<Optional<Task>> view = new Command<>(manager -> manager.getAnyById(id));
+        if (Thread.currentThread() == writer) {
+            view.run(state);
+        } else if (!closed) {
+            queue.add(view);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        queue.add(new Command<>(null));
+        if (Thread.currentThread() == writer) return;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> T call(Function<TaskManager, T> operation) {
+        try {
+            return submit(operation).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    private void run(Consumer<TaskManager> operation) {
+        call(manager -> {
+            operation.accept(manager);
+            return null;
+        });
+    }
+
+    private <T> T read(Function<TaskSnapshot, T> reader) {
+        return reader.apply(current());
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return read(TaskSnapshot::getAllTasks);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        run(TaskManager::deleteAllTasks);
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        return view(current -> current.getTaskById(id));
+    }
+
+    @Override
+    public void createTask(Task task) {
+        run(manager -> manager.createTask(task));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        run(manager -> manager.updateTask(task));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        run(manager -> manager.deleteTaskById(id));
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return read(TaskSnapshot::getAllEpics);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        run(TaskManager::deleteAllEpics);
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        return view(current -> current.getEpicById(id));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        run(manager -> manager.createEpic(epic));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        run(manager -> manager.updateEpic(epic));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        run(manager -> manager.deleteEpicById(id));
+    }
+
+    @Override
+    public List<SubTask> getAllSubTasks() {
+        return read(TaskSnapshot::getAllSubTasks);
+    }
+
+    @Override
+    public void deleteAllSubTasks() {
+        run(TaskManager::deleteAllSubTasks);
+    }
+
+    @Override
+    public Optional<SubTask> getSubTaskById(int id) {
+        return view(current -> current.getSubTaskById(id));
+    }
+
+    @Override
+    public void createSubTask(SubTask subtask) {
+        run(manager -> manager.createSubTask(subtask));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subtask) {
+        run(manager -> manager.updateSubTask(subtask));
+    }
+
+    @Override
+    public void deleteSubTaskById(int id) {
+        run(manager -> manager.deleteSubTaskById(id));
+    }
+
+    @Override
+    public List<SubTask> getSubTasksOfEpic(int epicId) {
+        return read(current -> current.getSubTasksOfEpic(epicId));
+    }
+
+    @Override
+    public Optional<Task> getAnyById(int id) {
+        return view(current -> current.getAnyById(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return call(TaskManager::getHistory);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(TaskSnapshot::getPrioritizedTasks);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return read(current -> current.getPrioritizedTasks(from, to));
+    }
+
+    @Override
+    public List<Task> getNextPrioritizedTasks(LocalDateTime after, int limit) {
+        return read(current -> current.getNextPrioritizedTasks(after, limit));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return read(current -> current.findFreeSlot(from, duration));
+    }
+
+    @Override
+    public void createTaskAutoScheduled(Task task, LocalDateTime from) {
+        run(manager -> manager.createTaskAutoScheduled(task, from));
+    }
+
+    @Override
+    public List<Task> shiftAfter(LocalDateTime from, Duration delta) {
+        return call(manager -> manager.shiftAfter(from, delta));
+    }
+
+    @Override
+    public void apply(TaskBatch batch) {
+        run(manager -> manager.apply(batch));
+    }
+
+    @Override
+    public LocalDateTime getEpicStartTime(int epicId) {
+        return read(current -> current.getEpicStartTime(epicId));
+    }
+
+    @Override
+    public LocalDateTime getEpicEndTime(int epicId) {
+        return read(current -> current.getEpicEndTime(epicId));
+    }
+
+    @Override
+    public Duration getEpicDuration(int epicId) {
+        return read(current -> current.getEpicDuration(epicId));
+    }
+}
@@ -3,89 +3,447 @@ package manager;
 import model.Epic;
 import model.SubTask;
 import model.Task;
+import util.CsvSnapshotParser;
+import util.IntLinkedSet;
+import util.PersistentSortedMap;
+import util.StorageFormat;
+import util.TaskConverterBinary;
 import util.TaskConverterCsv;
+import util.TaskType;
 
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.DateTimeException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
     private final File file;
+    private final PersistenceMode mode;
+    private final StorageFormat format;
+    private final MutationJournal journal;
+    private final MutationJournal compactingJournal;
+    private final MutationJournal historyJournal;
+    private final MutationJournal compactingHistory;
+    private final IntLinkedSet pendingViews = new IntLinkedSet();
+    private boolean historyChanged;
+    private PersistentSortedMap<Integer, Task> persistedTasks = PersistentSortedMap.empty(Integer::compare);
+    private PersistentSortedMap<Integer, Task> persistedEpics = PersistentSortedMap.empty(Integer::compare);
+    private PersistentSortedMap<Integer, Task> persistedSubTasks = PersistentSortedMap.empty(Integer::compare);
+    private List<String> batchRecords;
+    private final ScheduledThreadPoolExecutor executor = createExecutor();
+    private final Object writeLock = new Object();
+    private volatile Future<?> pendingSnapshot = CompletableFuture.completedFuture(null);
+    private ScheduledFuture<?> pendingFlush;
+    private int journalLimit = 1000;
+    private Duration snapshotInterval = Duration.ofMinutes(1);
+    private Duration flushDelay = Duration.ofMillis(5);
+    private int flushLimit = 1000;
+    private int journaledRecords;
+    private int journaledViews;
+    private int pendingOps;
+    private long lastSnapshotNanos = System.nanoTime();
+    private long snapshotVersion;
+    private long writtenVersion;
 
     public FileBackedTaskManager(File file, HistoryManager historyManager) {
-        super(historyManager);
+        this(file, historyManager, PersistenceMode.SNAPSHOT);
+    }
+
+    public FileBackedTaskManager(File file, HistoryManager historyManager, PersistenceMode mode) {
+        this(file, historyManager, mode, StorageFormat.CSV);
+    }
+
+    public FileBackedTaskManager(File file, HistoryManager historyManager, PersistenceMode mode,
+                                 StorageFormat format) {
+        this(file, historyManager, mode, format, new AtomicIdAllocator());
+    }
+
+    public FileBackedTaskManager(File file, HistoryManager historyManager, PersistenceMode mode,
+                                 StorageFormat format, IdAllocator idAllocator) {
+        super(historyManager, idAllocator);
         this.file = file;
+        this.mode = mode;
+        this.format = format;
+        this.journal = new MutationJournal(new File(file.getPath() + ".journal"));
+        this.compactingJournal = new MutationJournal(new File(file.getPath() + ".journal.compacting"));
+        this.historyJournal = new MutationJournal(new File(file.getPath() + ".history"));
+        this.compactingHistory = new MutationJournal(new File(file.getPath() + ".history.compacting"));
+    }
+
+    private static ScheduledThreadPoolExecutor createExecutor() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "kanban-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(1, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    public void setSnapshotPolicy(int journalLimit, Duration snapshotInterval) {
+        if (journalLimit <= 0 || snapshotInterval == null || snapshotInterval.isNegative()) {
+            throw new IllegalArgumentException("Некорректные пороги создания снимка");
+        }
+        this.journalLimit = journalLimit;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    public void setWriteBehindPolicy(Duration flushDelay, int flushLimit) {
+        if (flushLimit <= 0 || flushDelay == null || flushDelay.isNegative()) {
+            throw new IllegalArgumentException("Некорректные параметры отложенной записи");
+        }
+        this.flushDelay = flushDelay;
+        this.flushLimit = flushLimit;
+    }
+
+    private static final class SnapshotView {
+        final List<? extends Task> tasks;
+        final List<? extends Task> epics;
+        final List<? extends Task> subtasks;
+        final List<Integer> history;
+        final int highWaterMark;
+
+        SnapshotView(List<? extends Task> tasks, List<? extends Task> epics, List<? extends Task> subtasks,
+                     List<Integer> history, int highWaterMark) {
+            this.tasks = tasks;
+            this.epics = epics;
+            this.subtasks = subtasks;
+            this.history = history;
+            this.highWaterMark = highWaterMark;
+        }
     }
 
-    protected void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            writer.write("id,type,name,status,details,epic,duration,startTime\n");
-            for (Task task : getAllTasks()) {
-                writer.write(TaskConverterCsv.toString(task) + "\n");
+    protected synchronized void save() {
+        awaitSnapshot();
+        writeSnapshot(++snapshotVersion, captureView());
+        discardJournals();
+        journaledRecords = 0;
+        journaledViews = 0;
+        pendingOps = 0;
+        pendingViews.clear();
+        historyChanged = false;
+        lastSnapshotNanos = System.nanoTime();
+    }
+
+    public void flush() {
+        SnapshotView view = null;
+        long version = 0;
+        synchronized (this) {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+                pendingFlush = null;
             }
-            for (Epic epic : getAllEpics()) {
-                writer.write(TaskConverterCsv.toString(epic) + "\n");
+            if (mode == PersistenceMode.JOURNAL) {
+                appendPendingViews();
+            } else if (pendingOps > 0 || historyChanged) {
+                view = captureView();
+                version = ++snapshotVersion;
+                pendingOps = 0;
+                historyChanged = false;
             }
-            for (SubTask subtask : getAllSubTasks()) {
-                writer.write(TaskConverterCsv.toString(subtask) + "\n");
+        }
+        if (view != null) {
+            writeSnapshot(version, view);
+            discardJournals();
+        }
+        awaitSnapshot();
+    }
+
+    @Override
+    public void close() {
+        flush();
+        executor.shutdown();
+    }
+
+    private void persist(String record) {
+        if (batchRecords != null) {
+            batchRecords.add(record);
+            return;
+        }
+        switch (mode) {
+            case SNAPSHOT -> save();
+            case JOURNAL -> {
+                appendPendingViews();
+                journal.append(record);
+                journaledRecords++;
+                if (journaledRecords >= journalLimit
+                        || System.nanoTime() - lastSnapshotNanos >= snapshotInterval.toNanos()) {
+                    scheduleSnapshot();
+                }
             }
-            writer.write("\n");
-            writer.write(historyToString(getHistory()));
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка сохранения в файл: " + file.getPath(), e);
+            case WRITE_BEHIND -> scheduleFlush();
         }
     }
 
-    public static FileBackedTaskManager loadFromFile(File file, HistoryManager historyManager) {
-        FileBackedTaskManager manager = new FileBackedTaskManager(file, historyManager);
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line = reader.readLine();
-            while ((line = reader.readLine()) != null && !line.isEmpty()) {
+    private void appendPendingViews() {
+        if (pendingViews.isEmpty()) return;
+        historyJournal.append(pendingViews.toList().stream()
+                .map(MutationJournal::view)
+                .collect(Collectors.joining("\n")));
+        pendingViews.clear();
+    }
+
+    private void discardJournals() {
+        compactingJournal.truncate();
+        journal.truncate();
+        compactingHistory.truncate();
+        historyJournal.truncate();
+    }
+
+    private void scheduleFlush() {
+        pendingOps++;
+        if (executor.isShutdown()) {
+            save();
+            return;
+        }
+        boolean limitReached = pendingOps >= flushLimit;
+        if (pendingFlush == null || (limitReached && pendingFlush.getDelay(TimeUnit.NANOSECONDS) > 0)) {
+            if (pendingFlush != null) {
+                pendingFlush.cancel(false);
+            }
+            long delay = limitReached ? 0 : flushDelay.toNanos();
+            pendingFlush = executor.schedule(() -> {
                 try {
-                    Task task = TaskConverterCsv.fromString(line);
-                    switch (task.getType()) {
-                        case TASK -> manager.createTask(task);
-                        case EPIC -> manager.createEpic((Epic) task);
-                        case SUBTASK -> manager.createSubTask((SubTask) task);
-                    }
-                } catch (IllegalArgumentException e) {
-                    System.err.println("Ошибка при обработке строки: " + line + ". Причина: " + e.getMessage());
+                    flush();
+                } catch (ManagerSaveException e) {
+                    System.err.println("Ошибка отложенной записи: " + e.getMessage());
                 }
+            }, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void scheduleSnapshot() {
+        if (!pendingSnapshot.isDone()) return;
+        SnapshotView view = captureView();
+        long version = ++snapshotVersion;
+        pendingViews.clear();
+        journal.moveTo(compactingJournal);
+        historyJournal.moveTo(compactingHistory);
+        journaledRecords = 0;
+        lastSnapshotNanos = System.nanoTime();
+        if (executor.isShutdown()) {
+            writeSnapshot(version, view);
+            compactingJournal.truncate();
+            compactingHistory.truncate();
+            return;
+        }
+        pendingSnapshot = executor.submit(() -> {
+            try {
+                writeSnapshot(version, view);
+                compactingJournal.truncate();
+                compactingHistory.truncate();
+            } catch (ManagerSaveException e) {
+                System.err.println("Ошибка фонового сохранения снимка: " + e.getMessage());
             }
-            line = reader.readLine();
-            if (line != null && !line.isEmpty()) {
-                for (int id : historyFromString(line)) {
-                    if (manager.tasks.containsKey(id)) {
-                        manager.getTaskById(id);
-                    } else if (manager.epics.containsKey(id)) {
-                        manager.getEpicById(id);
-                    } else if (manager.subtasks.containsKey(id)) {
-                        manager.getSubTaskById(id);
-                    }
-                }
+        });
+    }
+
+    void awaitSnapshot() {
+        try {
+            pendingSnapshot.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Ошибка фонового сохранения снимка: " + e.getCause().getMessage());
+        }
+    }
+
+    private SnapshotView captureView() {
+        List<Integer> history = getHistory().stream().map(Task::getId).toList();
+        if (mode == PersistenceMode.SNAPSHOT) {
+            return new SnapshotView(getAllTasks(), getAllEpics(), getAllSubTasks(), history,
+                    idAllocator.getHighWaterMark());
+        }
+        return new SnapshotView(persistedTasks.values(), persistedEpics.values(), persistedSubTasks.values(),
+                history, idAllocator.getHighWaterMark());
+    }
+
+    private void encode(SnapshotView view, StorageFormat targetFormat, OutputStream out) throws IOException {
+        if (targetFormat == StorageFormat.BINARY) {
+            TaskConverterBinary.writeHeader(out);
+            List<Task> all = new ArrayList<>(view.tasks);
+            all.addAll(view.epics);
+            all.addAll(view.subtasks);
+            TaskConverterBinary.writeTasks(out, all);
+            TaskConverterBinary.writeIds(out, view.history);
+            TaskConverterBinary.writeHighWaterMark(out, view.highWaterMark);
+            return;
+        }
+        Writer writer = new OutputStreamWriter(out);
+        StringBuilder row = new StringBuilder(128);
+        writer.write("id,type,name,status,details,epic,duration,startTime\n");
+        for (List<? extends Task> section : List.of(view.tasks, view.epics, view.subtasks)) {
+            for (Task task : section) {
+                row.setLength(0);
+                TaskConverterCsv.append(row, task).append('\n');
+                writer.append(row);
+            }
+        }
+        writer.write("\n");
+        for (int i = 0; i < view.history.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
             }
-            int maxId = Math.max(
-                    manager.tasks.keySet().stream().mapToInt(Integer::intValue).max().orElse(0),
-                    Math.max(
-                            manager.epics.keySet().stream().mapToInt(Integer::intValue).max().orElse(0),
-                            manager.subtasks.keySet().stream().mapToInt(Integer::intValue).max().orElse(0)
-                    )
-            );
-            manager.nextId = maxId + 1;
+            writer.write(String.valueOf(view.history.get(i)));
+        }
+        writer.write("\n");
+        writer.write(String.valueOf(view.highWaterMark));
+        writer.flush();
+    }
+
+    private void writeSnapshot(long version, SnapshotView view) {
+        synchronized (writeLock) {
+            if (version <= writtenVersion) return;
+            writeAtomically(file, out -> encode(view, format, out));
+            writtenVersion = version;
+        }
+    }
+
+    private interface Encoder {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private static void writeAtomically(File target, Encoder encoder) {
+        File tmp = new File(target.getPath() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp)) {
+            BufferedOutputStream out = new BufferedOutputStream(file, 1 << 16);
+            encoder.writeTo(out);
+            out.flush();
+            file.getFD().sync();
         } catch (IOException e) {
-            throw new RuntimeException("Ошибка при загрузке задач из файла: " + file.getPath(), e);
+            throw new ManagerSaveException("Ошибка сохранения в файл: " + target.getPath(), e);
         }
+        try {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка сохранения в файл: " + target.getPath(), e);
+        }
+    }
+
+    public static void convert(File source, File target, StorageFormat targetFormat) {
+        FileBackedTaskManager manager = loadFromFile(source, new InMemoryHistoryManager());
+        SnapshotView view = manager.captureView();
+        writeAtomically(target, out -> manager.encode(view, targetFormat, out));
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, HistoryManager historyManager) {
+        return loadFromFile(file, historyManager, PersistenceMode.SNAPSHOT);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, HistoryManager historyManager, PersistenceMode mode) {
+        StorageFormat format = TaskConverterBinary.isBinary(file) ? StorageFormat.BINARY : StorageFormat.CSV;
+        return loadFromFile(file, historyManager, mode, format);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, HistoryManager historyManager, PersistenceMode mode,
+                                                     StorageFormat format) {
+        return loadFromFile(file, historyManager, mode, format, new AtomicIdAllocator());
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, HistoryManager historyManager, PersistenceMode mode,
+                                                     StorageFormat format, IdAllocator idAllocator) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, historyManager, mode, format, idAllocator);
+        if (file.exists() || (!manager.journal.exists() && !manager.compactingJournal.exists())) {
+            manager.readSnapshot();
+        }
+        List<String> records = new ArrayList<>(manager.compactingJournal.recover());
+        records.addAll(manager.journal.recover());
+        int journaled = records.size();
+        records.addAll(manager.compactingHistory.recover());
+        records.addAll(manager.historyJournal.recover());
+        for (String record : records) {
+            try {
+                manager.replay(record);
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+                System.err.println("Ошибка при обработке записи журнала: " + record + ". Причина: " + e.getMessage());
+            }
+        }
+        manager.journaledRecords = journaled;
         return manager;
     }
 
-    private String historyToString(List<Task> history) {
-        return history.stream()
-                .map(Task::getId)
-                .map(String::valueOf)
-                .collect(Collectors.joining(","));
+    private void readSnapshot() {
+        if (TaskConverterBinary.isBinary(file)) {
+            readBinarySnapshot();
+            return;
+        }
+        CsvSnapshotParser parser;
+        try {
+            parser = new CsvSnapshotParser(new String(Files.readAllBytes(file.toPath())));
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при загрузке задач из файла: " + file.getPath(), e);
+        }
+        restore(parser.parseTasks(ForkJoinPool.commonPool()));
+        String line = parser.getHistoryLine();
+        if (!line.isEmpty()) {
+            for (int id : historyFromString(line)) {
+                restoreView(id);
+            }
+        }
+        restoreHighWaterMark(parser.getHighWaterMark());
+    }
+
+    private void readBinarySnapshot() {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            TaskConverterBinary.readHeader(in);
+            restore(TaskConverterBinary.readTasks(in));
+            for (int id : TaskConverterBinary.readIds(in)) {
+                restoreView(id);
+            }
+            restoreHighWaterMark(TaskConverterBinary.readHighWaterMark(in));
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при загрузке задач из файла: " + file.getPath(), e);
+        }
+    }
+
+    private void replay(String record) {
+        String[] parts = record.split(",", 2);
+        switch (MutationJournal.Op.valueOf(parts[0])) {
+            case PUT -> restore(List.of(TaskConverterCsv.fromString(parts[1])));
+            case DELETE -> {
+                String[] args = parts[1].split(",");
+                int id = Integer.parseInt(args[1]);
+                switch (TaskType.valueOf(args[0])) {
+                    case TASK -> super.deleteTaskById(id);
+                    case EPIC -> super.deleteEpicById(id);
+                    case SUBTASK -> super.deleteSubTaskById(id);
+                }
+            }
+            case CLEAR -> {
+                switch (TaskType.valueOf(parts[1])) {
+                    case TASK -> super.deleteAllTasks();
+                    case EPIC -> super.deleteAllEpics();
+                    case SUBTASK -> super.deleteAllSubTasks();
+                }
+            }
+            case SHIFT -> {
+                String[] args = parts[1].split(",");
+                super.shiftAfter(LocalDateTime.parse(args[0]), Duration.parse(args[1]));
+            }
+            case VIEW -> restoreView(Integer.parseInt(parts[1]));
+        }
+    }
+
+    private void restoreHighWaterMark(int highWaterMark) {
+        if (highWaterMark > 0) {
+            idAllocator.advancePast(highWaterMark - 1);
+        }
+    }
+
+    private void restoreView(int id) {
+        Task task = items.get(id);
+        if (task != null) {
+            historyManager.add(task);
+        }
     }
 
     private static List<Integer> historyFromString(String line) {
@@ -97,139 +455,156 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     @Override
-    public void createTask(Task task) {
+    public synchronized void createTask(Task task) {
         super.createTask(task);
-        save();
+        persist(MutationJournal.put(task));
+    }
+
+    @Override
+    public synchronized void createTaskAutoScheduled(Task task, LocalDateTime from) {
+        super.createTaskAutoScheduled(task, from);
     }
 
     @Override
-    public void updateTask(Task task) {
+    public synchronized List<Task> shiftAfter(LocalDateTime from, Duration delta) {
+        List<Task> shifted = super.shiftAfter(from, delta);
+        if (!shifted.isEmpty()) {
+            persist(MutationJournal.shift(from, delta));
+        }
+        return shifted;
+    }
+
+    @Override
+    public synchronized void apply(TaskBatch batch) {
+        List<String> records = new ArrayList<>();
+        batchRecords = records;
+        try {
+            super.apply(batch);
+        } finally {
+            batchRecords = null;
+        }
+        if (!records.isEmpty()) {
+            persist(MutationJournal.batch(records));
+        }
+    }
+
+    @Override
+    public synchronized void updateTask(Task task) {
         super.updateTask(task);
-        save();
+        if (tasks.get(task.getId()) == task) {
+            persist(MutationJournal.put(task));
+        }
     }
 
     @Override
-    public void deleteTaskById(int id) {
+    public synchronized void deleteTaskById(int id) {
+        boolean existed = tasks.containsKey(id);
         super.deleteTaskById(id);
-        save();
+        if (existed) {
+            persist(MutationJournal.delete(TaskType.TASK, id));
+        }
     }
 
     @Override
-    public void deleteAllTasks() {
+    public synchronized void deleteAllTasks() {
         super.deleteAllTasks();
-        save();
+        persist(MutationJournal.clear(TaskType.TASK));
     }
 
     @Override
-    public void createEpic(Epic epic) {
+    public synchronized void createEpic(Epic epic) {
         super.createEpic(epic);
-        save();
+        persist(MutationJournal.put(epic));
     }
 
     @Override
-    public void updateEpic(Epic epic) {
+    public synchronized void updateEpic(Epic epic) {
         super.updateEpic(epic);
-        save();
+        if (epics.get(epic.getId()) == epic) {
+            persist(MutationJournal.put(epic));
+        }
     }
 
     @Override
-    public void deleteEpicById(int id) {
+    public synchronized void deleteEpicById(int id) {
+        boolean existed = epics.containsKey(id);
         super.deleteEpicById(id);
-        save();
+        if (existed) {
+            persist(MutationJournal.delete(TaskType.EPIC, id));
+        }
     }
 
     @Override
-    public void deleteAllEpics() {
+    public synchronized void deleteAllEpics() {
         super.deleteAllEpics();
-        save();
+        persist(MutationJournal.clear(TaskType.EPIC));
     }
 
     @Override
-    public void createSubTask(SubTask subtask) {
+    public synchronized void createSubTask(SubTask subtask) {
         super.createSubTask(subtask);
-        save();
+        persist(MutationJournal.put(subtask));
     }
 
     @Override
-    public void updateSubTask(SubTask subtask) {
+    public synchronized void updateSubTask(SubTask subtask) {
         super.updateSubTask(subtask);
-        save();
+        if (subtasks.get(subtask.getId()) == subtask) {
+            persist(MutationJournal.put(subtask));
+        }
     }
 
     @Override
-    public void deleteSubTaskById(int id) {
+    public synchronized void deleteSubTaskById(int id) {
+        boolean existed = subtasks.containsKey(id);
         super.deleteSubTaskById(id);
-        save();
+        if (existed) {
+            persist(MutationJournal.delete(TaskType.SUBTASK, id));
+        }
     }
 
     @Override
-    public void deleteAllSubTasks() {
+    public synchronized void deleteAllSubTasks() {
         super.deleteAllSubTasks();
-        save();
+        persist(MutationJournal.clear(TaskType.SUBTASK));
     }
 
     @Override
-    public Optional<Task> getTaskById(int id) {
-        Optional<Task> taskOpt = super.getTaskById(id);
-        if (taskOpt.isPresent()) {
-            save();
+    protected void markChanged(int id) {
+        super.markChanged(id);
+        if (mode == PersistenceMode.SNAPSHOT) return;
+        persistedTasks = persistedTasks.remove(id);
+        persistedEpics = persistedEpics.remove(id);
+        persistedSubTasks = persistedSubTasks.remove(id);
+        Task live = items.get(id);
+        if (live == null) return;
+        Task copy = InMemoryHistoryManager.headerOf(live);
+        switch (copy.getType()) {
+            case TASK -> persistedTasks = persistedTasks.put(id, copy);
+            case EPIC -> persistedEpics = persistedEpics.put(id, copy);
+            case SUBTASK -> persistedSubTasks = persistedSubTasks.put(id, copy);
         }
-        return taskOpt;
     }
 
     @Override
-    public Optional<Epic> getEpicById(int id) {
-        Optional<Epic> epicOpt = super.getEpicById(id);
-        if (epicOpt.isPresent()) {
-            save();
-        }
-        return epicOpt;
-    }
-
-    @Override
-    public Optional<SubTask> getSubTaskById(int id) {
-        Optional<SubTask> subTaskOpt = super.getSubTaskById(id);
-        if (subTaskOpt.isPresent()) {
-            save();
+    protected synchronized void addToHistory(Task task) {
+        super.addToHistory(task);
+        if (task == null) return;
+        switch (mode) {
+            case JOURNAL -> {
+                pendingViews.remove(task.getId());
+                pendingViews.add(task.getId());
+            }
+            case SNAPSHOT -> {
+                historyJournal.append(MutationJournal.view(task.getId()));
+                if (++journaledViews >= journalLimit) {
+                    save();
+                }
+            }
+            case WRITE_BEHIND -> {
+                historyChanged = true;
+                scheduleFlush();
+            }
         }
-        return subTaskOpt;
-    }
-
-    @Override
-    public LocalDateTime getEpicStartTime(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) return null;
-        return epic.getSubTaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .map(SubTask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
-    }
-
-    @Override
-    public LocalDateTime getEpicEndTime(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) return null;
-        return epic.getSubTaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .map(SubTask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
-    }
-
-    @Override
-    public Duration getEpicDuration(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) return null;
-        return epic.getSubTaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .map(SubTask::getDuration)
-                .filter(Objects::nonNull)
-                .reduce(Duration.ZERO, Duration::plus, Duration::plus);
     }
-}
\ No newline at end of file
+}
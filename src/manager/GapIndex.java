@@ -0,0 +1,173 @@
+package manager;
+
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Random;
+
+class GapIndex {
+    private final Comparator<Task> order;
+    private final Random random = new Random();
+    private Node root;
+
+    GapIndex(Comparator<Task> order) {
+        this.order = order;
+    }
+
+    private static final class Node {
+        final Task task;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final int priority;
+        Node left;
+        Node right;
+        LocalDateTime firstStart;
+        LocalDateTime lastStart;
+        LocalDateTime maxEnd;
+        Duration maxGap;
+
+        Node(Task task, int priority) {
+            this.task = task;
+            this.start = task.getStartTime();
+            this.end = task.getEndTime();
+            this.priority = priority;
+            update();
+        }
+
+        void update() {
+            firstStart = left != null ? left.firstStart : start;
+            lastStart = right != null ? right.lastStart : start;
+            LocalDateTime before = left != null ? later(left.maxEnd, end) : end;
+            maxEnd = right != null ? later(before, right.maxEnd) : before;
+            maxGap = null;
+            if (left != null) {
+                maxGap = longer(left.maxGap, Duration.between(left.maxEnd, start));
+            }
+            if (right != null) {
+                maxGap = longer(maxGap, longer(right.maxGap, Duration.between(before, right.firstStart)));
+            }
+        }
+    }
+
+    void add(Task task) {
+        root = insert(root, new Node(task, random.nextInt()));
+    }
+
+    void build(Collection<? extends Task> sorted) {
+        Deque<Node> spine = new ArrayDeque<>();
+        for (Task task : sorted) {
+            Node node = new Node(task, random.nextInt());
+            Node last = null;
+            while (!spine.isEmpty() && spine.peek().priority < node.priority) {
+                last = spine.pop();
+                last.update();
+            }
+            node.left = last;
+            if (!spine.isEmpty()) {
+                spine.peek().right = node;
+            }
+            spine.push(node);
+        }
+        Node last = null;
+        while (!spine.isEmpty()) {
+            last = spine.pop();
+            last.update();
+        }
+        root = last;
+    }
+
+    void remove(Task task) {
+        root = delete(root, task);
+    }
+
+    LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        if (root == null) return from;
+        LocalDateTime slot = search(root, null, from, duration);
+        return slot != null ? slot : later(root.maxEnd, from);
+    }
+
+    private LocalDateTime search(Node node, LocalDateTime prefixEnd, LocalDateTime from, Duration duration) {
+        if (node == null || node.lastStart.isBefore(from.plus(duration))) return null;
+        boolean firstFits = !later(prefixEnd, from).plus(duration).isAfter(node.firstStart);
+        if (!firstFits && (node.maxGap == null || node.maxGap.compareTo(duration) < 0)) return null;
+        LocalDateTime slot = search(node.left, prefixEnd, from, duration);
+        if (slot != null) return slot;
+        LocalDateTime before = node.left != null ? later(prefixEnd, node.left.maxEnd) : prefixEnd;
+        LocalDateTime candidate = later(before, from);
+        if (!candidate.plus(duration).isAfter(node.start)) return candidate;
+        return search(node.right, later(before, node.end), from, duration);
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) return added;
+        if (added.priority > node.priority) {
+            Node[] parts = split(node, added.task);
+            added.left = parts[0];
+            added.right = parts[1];
+            added.update();
+            return added;
+        }
+        if (order.compare(added.task, node.task) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        node.update();
+        return node;
+    }
+
+    private Node delete(Node node, Task task) {
+        if (node == null) return null;
+        int cmp = order.compare(task, node.task);
+        if (cmp == 0) return merge(node.left, node.right);
+        if (cmp < 0) {
+            node.left = delete(node.left, task);
+        } else {
+            node.right = delete(node.right, task);
+        }
+        node.update();
+        return node;
+    }
+
+    private Node[] split(Node node, Task key) {
+        if (node == null) return new Node[]{null, null};
+        if (order.compare(node.task, key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            node.update();
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        node.update();
+        return new Node[]{parts[0], node};
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        if (a == null) return b;
+        return b == null || a.isAfter(b) ? a : b;
+    }
+
+    private static Duration longer(Duration a, Duration b) {
+        if (a == null) return b;
+        return b == null || a.compareTo(b) > 0 ? a : b;
+    }
+}
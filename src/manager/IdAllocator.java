@@ -0,0 +1,10 @@
+package manager;
+
+public interface IdAllocator {
+
+    int next();
+
+    void advancePast(int id);
+
+    int getHighWaterMark();
+}
@@ -74,7 +74,15 @@ public class InMemoryHistoryManager implements HistoryManager {
         node.setTask(null);
     }
 
-    private Task copyOf(Task task) {
+    static Task copyOf(Task task) {
+        Task copy = headerOf(task);
+        if (task instanceof Epic epic) {
+            ((Epic) copy).setSubTaskIds(epic.getSubTaskIds());
+        }
+        return copy;
+    }
+
+    static Task headerOf(Task task) {
         Task copy;
         if (task instanceof SubTask subTask) {
             copy = new SubTask(
@@ -85,14 +93,12 @@ public class InMemoryHistoryManager implements HistoryManager {
                     subTask.getEpicId()
             );
         } else if (task instanceof Epic epic) {
-            Epic copyEpic = new Epic(
+            copy = new Epic(
                     epic.getId(),
                     epic.getTitle(),
                     epic.getDetails(),
                     epic.getStatus()
             );
-            copyEpic.setSubTaskIds(new ArrayList<>(epic.getSubTaskIds()));
-            copy = copyEpic;
         } else {
             copy = new Task(
                     task.getId(),
@@ -3,32 +3,44 @@ package manager;
 import model.Epic;
 import model.SubTask;
 import model.Task;
+import util.ChangeType;
+import util.IntLinkedSet;
+import util.IntObjectMap;
 import util.TaskStatus;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
 
 public class InMemoryTaskManager implements TaskManager {
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final Map<Integer, SubTask> subtasks = new HashMap<>();
+    protected final IntObjectMap<Task> tasks = new IntObjectMap<>();
+    protected final IntObjectMap<Epic> epics = new IntObjectMap<>();
+    protected final IntObjectMap<SubTask> subtasks = new IntObjectMap<>();
+    protected final IntObjectMap<Task> items = new IntObjectMap<>();
     protected final HistoryManager historyManager;
-    protected final TreeSet<Task> prioritizedTasks = new TreeSet<>((t1, t2) -> {
-        if (t1.getStartTime() == null || t2.getStartTime() == null) return t1.getId() - t2.getId();
-        return t1.getStartTime().compareTo(t2.getStartTime());
-    });
-    protected int nextId = 1;
+    protected final Schedule schedule = new Schedule();
+    private final IntObjectMap<EpicAggregate> epicAggregates = new IntObjectMap<>();
+    protected final IdAllocator idAllocator;
+    private final IntLinkedSet pendingEpics = new IntLinkedSet();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<ChangeEvent> pendingEvents = new ArrayList<>();
+    private long changeSequence;
+    private boolean batching;
+    private IntConsumer changeObserver;
 
     public InMemoryTaskManager(HistoryManager historyManager) {
+        this(historyManager, new AtomicIdAllocator());
+    }
+
+    public InMemoryTaskManager(HistoryManager historyManager, IdAllocator idAllocator) {
         this.historyManager = historyManager;
+        this.idAllocator = idAllocator;
     }
 
     public boolean hasIntersection(Task task) {
-        return prioritizedTasks.stream()
-                .filter(t -> t != task)
-                .anyMatch(task::intersects);
+        return schedule.overlaps(task);
     }
 
     @Override
@@ -38,52 +50,48 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllTasks() {
-        List<Integer> taskIds = new ArrayList<>(tasks.keySet());
-        taskIds.forEach(id -> {
-            historyManager.remove(id);
-            prioritizedTasks.remove(tasks.get(id));
-            tasks.remove(id);
-        });
+        for (Task task : tasks.values()) {
+            forget(task.getId());
+            schedule.remove(task);
+            unindex(task);
+        }
+        tasks.clear();
     }
 
     @Override
     public Optional<Task> getTaskById(int id) {
         Task task = tasks.get(id);
-        if (task != null) {
-            historyManager.add(task);
-        }
+        addToHistory(task);
         return Optional.ofNullable(task);
     }
 
     @Override
     public void createTask(Task task) {
-        if (task.getStartTime() != null && task.getDuration() != null && hasIntersection(task)) {
+        if (!batching && task.getStartTime() != null && task.getDuration() != null && hasIntersection(task)) {
             throw new IllegalArgumentException("Данная задача пересекается с другой по времени выполнения");
         }
         if (task.getId() == 0) {
-            task.setId(nextId++);
-        } else if (task.getId() >= nextId) {
-            nextId = task.getId() + 1;
+            task.setId(idAllocator.next());
+        } else {
+            idAllocator.advancePast(task.getId());
         }
         tasks.put(task.getId(), task);
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        index(task);
+        schedule.add(task);
     }
 
     @Override
     public void updateTask(Task task) {
         if (tasks.containsKey(task.getId())) {
             Task oldTask = tasks.get(task.getId());
-            prioritizedTasks.remove(oldTask);
-            if (task.getStartTime() != null && task.getDuration() != null && hasIntersection(task)) {
-                prioritizedTasks.add(oldTask);
+            schedule.remove(oldTask);
+            if (!batching && task.getStartTime() != null && task.getDuration() != null && hasIntersection(task)) {
+                schedule.add(oldTask);
                 throw new IllegalArgumentException("Данная задача пересекается с другой по времени выполнения");
             }
             tasks.put(task.getId(), task);
-            if (task.getStartTime() != null) {
-                prioritizedTasks.add(task);
-            }
+            index(task);
+            schedule.add(task);
         }
     }
 
@@ -91,8 +99,9 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteTaskById(int id) {
         Task task = tasks.remove(id);
         if (task != null) {
-            historyManager.remove(id);
-            prioritizedTasks.remove(task);
+            unindex(task);
+            forget(id);
+            schedule.remove(task);
         }
     }
 
@@ -103,42 +112,45 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllEpics() {
-        List<Integer> epicIds = new ArrayList<>(epics.keySet());
-        epicIds.forEach(id -> {
-            Epic epic = epics.get(id);
-            epic.getSubTaskIds().forEach(subId -> {
-                historyManager.remove(subId);
-                prioritizedTasks.remove(subtasks.get(subId));
-                subtasks.remove(subId);
+        for (Epic epic : epics.values()) {
+            epic.forEachSubTaskId(subId -> {
+                forget(subId);
+                SubTask subtask = subtasks.remove(subId);
+                schedule.remove(subtask);
+                unindex(subtask);
             });
-            historyManager.remove(id);
-            epics.remove(id);
-        });
+            forget(epic.getId());
+            unindex(epic);
+        }
+        epics.clear();
+        epicAggregates.clear();
     }
 
     @Override
     public Optional<Epic> getEpicById(int id) {
         Epic epic = epics.get(id);
-        if (epic != null) {
-            historyManager.add(epic);
-        }
+        addToHistory(epic);
         return Optional.ofNullable(epic);
     }
 
     @Override
     public void createEpic(Epic epic) {
         if (epic.getId() == 0) {
-            epic.setId(nextId++);
-        } else if (epic.getId() >= nextId) {
-            nextId = epic.getId() + 1;
+            epic.setId(idAllocator.next());
+        } else {
+            idAllocator.advancePast(epic.getId());
         }
         epics.put(epic.getId(), epic);
+        index(epic);
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        if (epics.containsKey(epic.getId())) {
+        Epic oldEpic = epics.get(epic.getId());
+        if (oldEpic != null) {
+            epic.setSubTaskIds(oldEpic.getSubTaskIds());
             epics.put(epic.getId(), epic);
+            index(epic);
             updateEpicStatus(epic.getId());
         }
     }
@@ -147,42 +159,102 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteEpicById(int id) {
         Epic epic = epics.remove(id);
         if (epic != null) {
-            List<Integer> subTaskIds = new ArrayList<>(epic.getSubTaskIds());
-            subTaskIds.forEach(subtaskId -> {
-                prioritizedTasks.remove(subtasks.get(subtaskId));
-                subtasks.remove(subtaskId);
-                historyManager.remove(subtaskId);
+            epic.forEachSubTaskId(subtaskId -> {
+                SubTask subtask = subtasks.remove(subtaskId);
+                schedule.remove(subtask);
+                unindex(subtask);
+                forget(subtaskId);
             });
+            unindex(epic);
+            epicAggregates.remove(id);
+            forget(id);
+        }
+    }
+
+    @Override
+    public Optional<Task> getAnyById(int id) {
+        Task task = items.get(id);
+        addToHistory(task);
+        return Optional.ofNullable(task);
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public long getChangeSequence() {
+        return changeSequence;
+    }
+
+    private void emit(ChangeType type, Task task) {
+        if (batching) {
+            pendingEvents.add(new ChangeEvent(0, type, InMemoryHistoryManager.copyOf(task)));
+            return;
+        }
+        long sequence = ++changeSequence;
+        if (!listeners.isEmpty()) {
+            deliver(new ChangeEvent(sequence, type, InMemoryHistoryManager.copyOf(task)));
+        }
+    }
+
+    private void deliver(ChangeEvent event) {
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.onChange(event);
+            } catch (RuntimeException e) {
+                System.err.println("Ошибка обработчика изменений: " + e.getMessage());
+            }
+        }
+    }
+
+    private void index(Task task) {
+        Task previous = items.put(task.getId(), task);
+        markChanged(task.getId());
+        emit(previous == null ? ChangeType.CREATED : ChangeType.UPDATED, task);
+    }
+
+    private void unindex(Task task) {
+        if (task != null && items.get(task.getId()) == task) {
+            items.remove(task.getId());
+            markChanged(task.getId());
+            emit(ChangeType.DELETED, task);
+        }
+    }
+
+    private void forget(int id) {
+        if (!batching) {
             historyManager.remove(id);
         }
     }
 
     private void updateEpicStatus(int epicId) {
+        if (batching) {
+            pendingEpics.add(epicId);
+            return;
+        }
         Epic epic = epics.get(epicId);
         if (epic == null) return;
-
-        List<Integer> subtaskIds = epic.getSubTaskIds();
-        if (subtaskIds.isEmpty()) {
-            epic.setStatus(TaskStatus.NEW);
-            return;
+        EpicAggregate aggregate = epicAggregates.get(epicId);
+        TaskStatus status = aggregate != null ? aggregate.getStatus() : TaskStatus.NEW;
+        markChanged(epicId);
+        if (epic.getStatus() != status) {
+            epic.setStatus(status);
+            emit(ChangeType.STATUS_CHANGED, epic);
         }
+    }
 
-        boolean allNew = subtaskIds.stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .allMatch(subtask -> subtask.getStatus() == TaskStatus.NEW);
-
-        boolean allDone = subtaskIds.stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .allMatch(subtask -> subtask.getStatus() == TaskStatus.DONE);
+    private void aggregate(SubTask subtask) {
+        epicAggregates.computeIfAbsent(subtask.getEpicId(), id -> new EpicAggregate()).add(subtask);
+    }
 
-        if (allDone) {
-            epic.setStatus(TaskStatus.DONE);
-        } else if (allNew) {
-            epic.setStatus(TaskStatus.NEW);
-        } else {
-            epic.setStatus(TaskStatus.IN_PROGRESS);
+    private void disaggregate(SubTask subtask) {
+        EpicAggregate aggregate = epicAggregates.get(subtask.getEpicId());
+        if (aggregate != null) {
+            aggregate.remove(subtask.getId());
         }
     }
 
@@ -193,14 +265,15 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void deleteAllSubTasks() {
-        List<Integer> subTaskIds = new ArrayList<>(subtasks.keySet());
-        subTaskIds.forEach(id -> {
-            historyManager.remove(id);
-            prioritizedTasks.remove(subtasks.get(id));
-            subtasks.remove(id);
-        });
+        for (SubTask subtask : subtasks.values()) {
+            forget(subtask.getId());
+            schedule.remove(subtask);
+            unindex(subtask);
+        }
+        subtasks.clear();
+        epicAggregates.clear();
         epics.values().forEach(epic -> {
-            epic.getSubTaskIds().clear();
+            epic.clearSubTaskIds();
             updateEpicStatus(epic.getId());
         });
     }
@@ -208,21 +281,19 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public Optional<SubTask> getSubTaskById(int id) {
         SubTask subTask = subtasks.get(id);
-        if (subTask != null) {
-            historyManager.add(subTask);
-        }
+        addToHistory(subTask);
         return Optional.ofNullable(subTask);
     }
 
     @Override
     public void createSubTask(SubTask subtask) {
-        if (subtask.getStartTime() != null && subtask.getDuration() != null && hasIntersection(subtask)) {
+        if (!batching && subtask.getStartTime() != null && subtask.getDuration() != null && hasIntersection(subtask)) {
             throw new IllegalArgumentException("Данная задача пересекается с другой по времени выполнения");
         }
         if (subtask.getId() == 0) {
-            subtask.setId(nextId++);
-        } else if (subtask.getId() >= nextId) {
-            nextId = subtask.getId() + 1;
+            subtask.setId(idAllocator.next());
+        } else {
+            idAllocator.advancePast(subtask.getId());
         }
         if (subtask.getId() == subtask.getEpicId()) {
             throw new IllegalArgumentException("SubTask не может быть своим же эпиком");
@@ -232,36 +303,45 @@ public class InMemoryTaskManager implements TaskManager {
             throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не существует.");
         }
         subtasks.put(subtask.getId(), subtask);
+        index(subtask);
         epic.addSubTaskId(subtask.getId());
+        aggregate(subtask);
         updateEpicStatus(subtask.getEpicId());
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
-        }
+        schedule.add(subtask);
     }
 
     @Override
     public void updateSubTask(SubTask subtask) {
         if (subtasks.containsKey(subtask.getId())) {
             SubTask oldSubtask = subtasks.get(subtask.getId());
-            prioritizedTasks.remove(oldSubtask);
-            if (subtask.getStartTime() != null && subtask.getDuration() != null && hasIntersection(subtask)) {
-                prioritizedTasks.add(oldSubtask);
+            schedule.remove(oldSubtask);
+            if (!batching && subtask.getStartTime() != null && subtask.getDuration() != null && hasIntersection(subtask)) {
+                schedule.add(oldSubtask);
                 throw new IllegalArgumentException("Данная задача пересекается с другой по времени выполнения");
             }
             if (subtask.getId() == subtask.getEpicId()) {
-                prioritizedTasks.add(oldSubtask);
+                schedule.add(oldSubtask);
                 throw new IllegalArgumentException("SubTask не может быть своим же эпиком");
             }
             Epic epic = epics.get(subtask.getEpicId());
             if (epic == null) {
-                prioritizedTasks.add(oldSubtask);
+                schedule.add(oldSubtask);
                 throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не существует.");
             }
             subtasks.put(subtask.getId(), subtask);
-            updateEpicStatus(subtask.getEpicId());
-            if (subtask.getStartTime() != null) {
-                prioritizedTasks.add(subtask);
+            index(subtask);
+            disaggregate(oldSubtask);
+            if (oldSubtask.getEpicId() != subtask.getEpicId()) {
+                Epic oldEpic = epics.get(oldSubtask.getEpicId());
+                if (oldEpic != null) {
+                    oldEpic.removeSubTaskId(subtask.getId());
+                    updateEpicStatus(oldEpic.getId());
+                }
+                epic.addSubTaskId(subtask.getId());
             }
+            aggregate(subtask);
+            updateEpicStatus(subtask.getEpicId());
+            schedule.add(subtask);
         }
     }
 
@@ -269,13 +349,15 @@ public class InMemoryTaskManager implements TaskManager {
     public void deleteSubTaskById(int id) {
         SubTask subtask = subtasks.remove(id);
         if (subtask != null) {
+            unindex(subtask);
             Epic epic = epics.get(subtask.getEpicId());
+            disaggregate(subtask);
             if (epic != null) {
                 epic.removeSubTaskId(id);
                 updateEpicStatus(subtask.getEpicId());
             }
-            historyManager.remove(id);
-            prioritizedTasks.remove(subtask);
+            forget(id);
+            schedule.remove(subtask);
         }
     }
 
@@ -285,10 +367,14 @@ public class InMemoryTaskManager implements TaskManager {
         if (epic == null) {
             return Collections.emptyList();
         }
-        return epic.getSubTaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        List<SubTask> result = new ArrayList<>(epic.getSubTaskCount());
+        epic.forEachSubTaskId(subtaskId -> {
+            SubTask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                result.add(subtask);
+            }
+        });
+        return result;
     }
 
     @Override
@@ -298,45 +384,174 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasks);
+        return schedule.getAll();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return schedule.getWindow(from, to);
+    }
+
+    @Override
+    public List<Task> getNextPrioritizedTasks(LocalDateTime after, int limit) {
+        return schedule.getNext(after, limit);
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return schedule.findFreeSlot(from, duration);
+    }
+
+    @Override
+    public void createTaskAutoScheduled(Task task, LocalDateTime from) {
+        if (task instanceof Epic) {
+            throw new IllegalArgumentException("Время эпика вычисляется по его подзадачам");
+        }
+        task.setStartTime(findFreeSlot(from, task.getDuration()));
+        if (task instanceof SubTask subtask) {
+            createSubTask(subtask);
+        } else {
+            createTask(task);
+        }
+    }
+
+    @Override
+    public List<Task> shiftAfter(LocalDateTime from, Duration delta) {
+        List<Task> shifted = schedule.prepareShift(from, delta);
+        for (Task task : shifted) {
+            schedule.remove(task);
+            task.setStartTime(task.getStartTime().plus(delta));
+            if (task instanceof SubTask subtask) {
+                aggregate(subtask);
+            }
+            markChanged(task.getId());
+            emit(ChangeType.UPDATED, task);
+        }
+        for (Task task : shifted) {
+            schedule.add(task);
+        }
+        return shifted;
+    }
+
+    @Override
+    public void apply(TaskBatch batch) {
+        BatchTransaction transaction = new BatchTransaction(this, items::get);
+        batching = true;
+        try {
+            transaction.run(batch);
+            schedule.reserve(transaction.getChanged());
+        } catch (RuntimeException e) {
+            try {
+                transaction.rollback();
+            } catch (RuntimeException undoError) {
+                e.addSuppressed(undoError);
+            }
+            pendingEvents.clear();
+            throw e;
+        } finally {
+            batching = false;
+            flushPendingEvents();
+            pendingEpics.forEach(this::updateEpicStatus);
+            pendingEpics.clear();
+        }
+        transaction.getRemoved().forEach(historyManager::remove);
+    }
+
+    private void flushPendingEvents() {
+        for (ChangeEvent event : pendingEvents) {
+            long sequence = ++changeSequence;
+            if (!listeners.isEmpty()) {
+                deliver(new ChangeEvent(sequence, event.getType(), event.getTask()));
+            }
+        }
+        pendingEvents.clear();
     }
 
     @Override
     public LocalDateTime getEpicStartTime(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) return null;
-        return epic.getSubTaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .map(SubTask::getStartTime)
-                .filter(Objects::nonNull)
-                .min(LocalDateTime::compareTo)
-                .orElse(null);
+        if (!epics.containsKey(epicId)) return null;
+        EpicAggregate aggregate = epicAggregates.get(epicId);
+        return aggregate != null ? aggregate.getStartTime() : null;
     }
 
     @Override
     public LocalDateTime getEpicEndTime(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) return null;
-        return epic.getSubTaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .map(SubTask::getEndTime)
-                .filter(Objects::nonNull)
-                .max(LocalDateTime::compareTo)
-                .orElse(null);
+        if (!epics.containsKey(epicId)) return null;
+        EpicAggregate aggregate = epicAggregates.get(epicId);
+        return aggregate != null ? aggregate.getEndTime() : null;
     }
 
     @Override
     public Duration getEpicDuration(int epicId) {
-        Epic epic = epics.get(epicId);
-        if (epic == null) return null;
-        return epic.getSubTaskIds().stream()
-                .map(subtasks::get)
-                .filter(Objects::nonNull)
-                .map(SubTask::getDuration)
-                .filter(Objects::nonNull)
-                .reduce(Duration.ZERO, Duration::plus);
+        if (!epics.containsKey(epicId)) return null;
+        EpicAggregate aggregate = epicAggregates.get(epicId);
+        return aggregate != null ? aggregate.getDuration() : Duration.ZERO;
+    }
+
+    protected void restore(Collection<? extends Task> loaded) {
+        Set<Integer> affectedEpics = new HashSet<>();
+        List<Task> scheduled = new ArrayList<>();
+        List<SubTask> loadedSubtasks = new ArrayList<>();
+        for (Task task : loaded) {
+            switch (task.getType()) {
+                case TASK -> {
+                    Task old = tasks.put(task.getId(), task);
+                    index(task);
+                    if (old != null) {
+                        schedule.remove(old);
+                    }
+                }
+                case EPIC -> {
+                    Epic epic = (Epic) task;
+                    Epic old = epics.put(epic.getId(), epic);
+                    index(epic);
+                    if (old != null) {
+                        epic.setSubTaskIds(old.getSubTaskIds());
+                    }
+                    affectedEpics.add(epic.getId());
+                }
+                case SUBTASK -> {
+                    loadedSubtasks.add((SubTask) task);
+                    continue;
+                }
+            }
+            if (task.getStartTime() != null) {
+                scheduled.add(task);
+            }
+            idAllocator.advancePast(task.getId());
+        }
+        for (SubTask subtask : loadedSubtasks) {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                System.err.println("Подзадача " + subtask.getId() + " ссылается на несуществующий эпик "
+                        + subtask.getEpicId());
+                continue;
+            }
+            SubTask old = subtasks.put(subtask.getId(), subtask);
+            index(subtask);
+            if (old != null) {
+                schedule.remove(old);
+                disaggregate(old);
+                if (old.getEpicId() != subtask.getEpicId()) {
+                    Epic oldEpic = epics.get(old.getEpicId());
+                    if (oldEpic != null) {
+                        oldEpic.removeSubTaskId(old.getId());
+                        affectedEpics.add(oldEpic.getId());
+                    }
+                    epic.addSubTaskId(subtask.getId());
+                }
+            } else {
+                epic.addSubTaskId(subtask.getId());
+            }
+            aggregate(subtask);
+            affectedEpics.add(epic.getId());
+            if (subtask.getStartTime() != null) {
+                scheduled.add(subtask);
+            }
+            idAllocator.advancePast(subtask.getId());
+        }
+        affectedEpics.forEach(this::updateEpicStatus);
+        schedule.addAll(scheduled);
     }
 
     protected void addToHistory(Task task) {
@@ -344,4 +559,14 @@ public class InMemoryTaskManager implements TaskManager {
             historyManager.add(task);
         }
     }
+
+    void observeChanges(IntConsumer observer) {
+        this.changeObserver = observer;
+    }
+
+    protected void markChanged(int id) {
+        if (changeObserver != null) {
+            changeObserver.accept(id);
+        }
+    }
 }
\ No newline at end of file
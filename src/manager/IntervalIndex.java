@@ -0,0 +1,87 @@
+package manager;
+
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+class IntervalIndex {
+    static final Comparator<Task> ORDER = (t1, t2) -> {
+        int byStart = t1.getStartTime().compareTo(t2.getStartTime());
+        if (byStart != 0) return byStart;
+        int byEnd = t1.getEndTime().compareTo(t2.getEndTime());
+        return byEnd != 0 ? byEnd : Integer.compare(t1.getId(), t2.getId());
+    };
+
+    private final TreeSet<Task> intervals = new TreeSet<>(ORDER);
+    private final GapIndex gaps = new GapIndex(ORDER);
+
+    static boolean isScheduled(Task task) {
+        return task.getStartTime() != null && task.getDuration() != null;
+    }
+
+    void add(Task task) {
+        if (isScheduled(task) && intervals.add(task)) {
+            gaps.add(task);
+        }
+    }
+
+    void addAll(Collection<? extends Task> tasks) {
+        if (!intervals.isEmpty()) {
+            for (Task task : tasks) {
+                add(task);
+            }
+            return;
+        }
+        List<Task> scheduled = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (isScheduled(task)) {
+                scheduled.add(task);
+            }
+        }
+        SortedListView<Task> sorted = SortedListView.of(scheduled, ORDER);
+        intervals.addAll(sorted);
+        gaps.build(sorted);
+    }
+
+    void remove(Task task) {
+        if (isScheduled(task) && intervals.remove(task)) {
+            gaps.remove(task);
+        }
+    }
+
+    boolean overlaps(Task task) {
+        if (!isScheduled(task)) return false;
+        for (Task candidate : intervals.headSet(probe(task.getEndTime()), false).descendingSet()) {
+            if (candidate == task) continue;
+            return candidate.getEndTime().isAfter(task.getStartTime());
+        }
+        return false;
+    }
+
+    LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return gaps.findFreeSlot(from, duration);
+    }
+
+    LocalDateTime endBefore(LocalDateTime time) {
+        Task before = intervals.lower(probe(time));
+        return before != null ? before.getEndTime() : null;
+    }
+
+    Task covering(LocalDateTime time) {
+        Task before = intervals.lower(probe(time));
+        return before != null && before.getEndTime().isAfter(time) ? before : null;
+    }
+
+    static Task probe(LocalDateTime time) {
+        Task probe = new Task(Integer.MIN_VALUE, null, null, null);
+        probe.setStartTime(time);
+        probe.setDuration(Duration.ZERO);
+        return probe;
+    }
+}
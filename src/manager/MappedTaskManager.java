@@ -0,0 +1,191 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskBodySource;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MappedTaskManager extends InMemoryTaskManager implements AutoCloseable {
+    private final MappedTaskStore store;
+    private final BodyCache bodyCache;
+
+    public MappedTaskManager(File file, HistoryManager historyManager) {
+        this(file, historyManager, 0);
+    }
+
+    public MappedTaskManager(File file, HistoryManager historyManager, int bodyCacheSize) {
+        super(historyManager);
+        this.store = new MappedTaskStore(file);
+        this.bodyCache = bodyCacheSize > 0 ? new BodyCache(store, bodyCacheSize) : null;
+        restore(store.readAll(bodyCache));
+    }
+
+    private void write(Task task) {
+        store.write(task);
+        evict(task.getId());
+    }
+
+    private void delete(int id) {
+        store.delete(id);
+        evict(id);
+    }
+
+    private void evict(int id) {
+        if (bodyCache != null) {
+            bodyCache.evict(id);
+        }
+    }
+
+    public void force() {
+        store.force();
+    }
+
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    @Override
+    public void createTask(Task task) {
+        super.createTask(task);
+        write(task);
+    }
+
+    @Override
+    public List<Task> shiftAfter(LocalDateTime from, Duration delta) {
+        List<Task> shifted = super.shiftAfter(from, delta);
+        shifted.forEach(this::write);
+        return shifted;
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        super.updateTask(task);
+        if (tasks.get(task.getId()) == task) {
+            write(task);
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        boolean existed = tasks.containsKey(id);
+        super.deleteTaskById(id);
+        if (existed) {
+            delete(id);
+        }
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        List<Integer> ids = new ArrayList<>(tasks.keySet());
+        super.deleteAllTasks();
+        ids.forEach(this::delete);
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        super.createEpic(epic);
+        write(epic);
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        super.updateEpic(epic);
+        if (epics.get(epic.getId()) == epic) {
+            write(epic);
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        Epic epic = epics.get(id);
+        List<Integer> subtaskIds = epic != null ? epic.getSubTaskIds() : List.of();
+        super.deleteEpicById(id);
+        if (epic != null) {
+            subtaskIds.forEach(this::delete);
+            delete(id);
+        }
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        List<Integer> ids = new ArrayList<>(epics.keySet());
+        ids.addAll(subtasks.keySet());
+        super.deleteAllEpics();
+        ids.forEach(this::delete);
+    }
+
+    @Override
+    public void createSubTask(SubTask subtask) {
+        super.createSubTask(subtask);
+        write(subtask);
+    }
+
+    @Override
+    public void updateSubTask(SubTask subtask) {
+        super.updateSubTask(subtask);
+        if (subtasks.get(subtask.getId()) == subtask) {
+            write(subtask);
+        }
+    }
+
+    @Override
+    public void deleteSubTaskById(int id) {
+        boolean existed = subtasks.containsKey(id);
+        super.deleteSubTaskById(id);
+        if (existed) {
+            delete(id);
+        }
+    }
+
+    @Override
+    public void deleteAllSubTasks() {
+        List<Integer> ids = new ArrayList<>(subtasks.keySet());
+        super.deleteAllSubTasks();
+        ids.forEach(this::delete);
+    }
+
+    private static final class BodyCache extends LinkedHashMap<Integer, String[]> implements TaskBodySource {
+        private static final long serialVersionUID = 1L;
+
+        private final transient MappedTaskStore store;
+        private final int capacity;
+
+        BodyCache(MappedTaskStore store, int capacity) {
+            super(16, 0.75f, true);
+            this.store = store;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public synchronized String getTitle(int id) {
+            return load(id)[0];
+        }
+
+        @Override
+        public synchronized String getDetails(int id) {
+            return load(id)[1];
+        }
+
+        synchronized void evict(int id) {
+            remove(id);
+        }
+
+        private String[] load(int id) {
+            return computeIfAbsent(id, key -> new String[]{store.readTitle(key), store.readDetails(key)});
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String[]> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import model.TaskBodySource;
+import util.TaskStatus;
+import util.TaskType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+class MappedTaskStore implements AutoCloseable {
+    private static final int SLOTS_MAGIC = 0x4B534C54;
+    private static final int HEAP_MAGIC = 0x4B484550;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 48;
+    private static final int INITIAL_SLOTS = 1024;
+    private static final int INITIAL_HEAP = 64 * 1024;
+
+    private static final int TYPE = 0;
+    private static final int STATUS = 1;
+    private static final int FLAGS = 2;
+    private static final int EPIC_ID = 4;
+    private static final int DURATION_SECONDS = 8;
+    private static final int START_SECONDS = 16;
+    private static final int DURATION_NANOS = 24;
+    private static final int START_NANOS = 28;
+    private static final int TITLE_OFFSET = 32;
+    private static final int TITLE_LENGTH = 36;
+    private static final int DETAILS_OFFSET = 40;
+    private static final int DETAILS_LENGTH = 44;
+
+    private static final int HAS_DURATION = 1;
+    private static final int HAS_START_TIME = 2;
+
+    private final File file;
+    private final FileChannel slotsChannel;
+    private final FileChannel heapChannel;
+    private MappedByteBuffer slots;
+    private MappedByteBuffer heap;
+    private int capacity;
+    private int heapTop;
+
+    MappedTaskStore(File file) {
+        this.file = file;
+        try {
+            slotsChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            heapChannel = FileChannel.open(new File(file.getPath() + ".heap").toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (slotsChannel.size() == 0) {
+                capacity = INITIAL_SLOTS;
+                slots = slotsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity * SLOT_SIZE);
+                slots.putInt(0, SLOTS_MAGIC);
+                slots.putInt(4, VERSION);
+                slots.putInt(8, capacity);
+            } else {
+                slots = slotsChannel.map(FileChannel.MapMode.READ_WRITE, 0, slotsChannel.size());
+                if (slots.getInt(0) != SLOTS_MAGIC || slots.getInt(4) != VERSION) {
+                    throw new ManagerSaveException("Неподдерживаемый формат файла задач: " + file.getPath(), null);
+                }
+                capacity = slots.getInt(8);
+            }
+            if (heapChannel.size() == 0) {
+                heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_HEAP);
+                heap.putInt(0, HEAP_MAGIC);
+                heap.putInt(4, VERSION);
+                heapTop = HEADER_SIZE;
+                heap.putInt(8, heapTop);
+            } else {
+                heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0, heapChannel.size());
+                if (heap.getInt(0) != HEAP_MAGIC || heap.getInt(4) != VERSION) {
+                    throw new ManagerSaveException("Неподдерживаемый формат файла задач: " + file.getPath(), null);
+                }
+                heapTop = heap.getInt(8);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка открытия файла задач: " + file.getPath(), e);
+        }
+    }
+
+    List<Task> readAll(TaskBodySource bodySource) {
+        List<Task> result = new ArrayList<>();
+        for (int id = 1; id < capacity; id++) {
+            if (slots.get(slotOffset(id) + TYPE) != 0) {
+                result.add(read(id, bodySource));
+            }
+        }
+        return result;
+    }
+
+    String readTitle(int id) {
+        int slot = slotOffset(id);
+        return readString(slots.getInt(slot + TITLE_OFFSET), slots.getInt(slot + TITLE_LENGTH));
+    }
+
+    String readDetails(int id) {
+        int slot = slotOffset(id);
+        return readString(slots.getInt(slot + DETAILS_OFFSET), slots.getInt(slot + DETAILS_LENGTH));
+    }
+
+    private <E extends Enum<E>> E readEnum(E[] values, int id, int ordinal) {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new ManagerSaveException("Повреждена запись задачи " + id + " в файле: " + file.getPath(), null);
+        }
+        return values[ordinal];
+    }
+
+    private Task read(int id, TaskBodySource bodySource) {
+        int slot = slotOffset(id);
+        TaskType type = readEnum(TaskType.values(), id, slots.get(slot + TYPE) - 1);
+        TaskStatus status = readEnum(TaskStatus.values(), id, slots.get(slot + STATUS));
+        String title = bodySource == null ? readTitle(id) : null;
+        String details = bodySource == null ? readDetails(id) : null;
+        Task task = switch (type) {
+            case TASK -> new Task(id, title, details, status);
+            case EPIC -> new Epic(id, title, details, status);
+            case SUBTASK -> new SubTask(id, title, details, status, slots.getInt(slot + EPIC_ID));
+        };
+        int flags = slots.get(slot + FLAGS);
+        if ((flags & HAS_DURATION) != 0) {
+            task.setDuration(Duration.ofSeconds(slots.getLong(slot + DURATION_SECONDS),
+                    slots.getInt(slot + DURATION_NANOS)));
+        }
+        if ((flags & HAS_START_TIME) != 0) {
+            task.setStartTime(LocalDateTime.ofEpochSecond(slots.getLong(slot + START_SECONDS),
+                    slots.getInt(slot + START_NANOS), ZoneOffset.UTC));
+        }
+        task.setBodySource(bodySource);
+        return task;
+    }
+
+    void write(Task task) {
+        int id = task.getId();
+        if (id <= 0) {
+            throw new IllegalArgumentException("Некорректный id для записи в файл: " + id);
+        }
+        ensureCapacity(id);
+        int slot = slotOffset(id);
+        boolean used = slots.get(slot + TYPE) != 0;
+        writeString(slot + TITLE_OFFSET, slot + TITLE_LENGTH, task.getTitle(), used);
+        writeString(slot + DETAILS_OFFSET, slot + DETAILS_LENGTH, task.getDetails(), used);
+        slots.put(slot + STATUS, (byte) task.getStatus().ordinal());
+        slots.putInt(slot + EPIC_ID, task instanceof SubTask subTask ? subTask.getEpicId() : 0);
+        int flags = 0;
+        Duration duration = task.getDuration();
+        if (duration != null) {
+            flags |= HAS_DURATION;
+            slots.putLong(slot + DURATION_SECONDS, duration.getSeconds());
+            slots.putInt(slot + DURATION_NANOS, duration.getNano());
+        }
+        LocalDateTime startTime = task.getStartTime();
+        if (startTime != null) {
+            flags |= HAS_START_TIME;
+            slots.putLong(slot + START_SECONDS, startTime.toEpochSecond(ZoneOffset.UTC));
+            slots.putInt(slot + START_NANOS, startTime.getNano());
+        }
+        slots.put(slot + FLAGS, (byte) flags);
+        slots.put(slot + TYPE, (byte) (task.getType().ordinal() + 1));
+    }
+
+    void delete(int id) {
+        if (id > 0 && id < capacity) {
+            slots.put(slotOffset(id) + TYPE, (byte) 0);
+        }
+    }
+
+    void force() {
+        slots.force();
+        heap.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+        try {
+            slotsChannel.close();
+            heapChannel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка закрытия файла задач: " + file.getPath(), e);
+        }
+    }
+
+    private static int slotOffset(int id) {
+        return HEADER_SIZE + id * SLOT_SIZE;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < capacity) return;
+        int newCapacity = capacity;
+        while (newCapacity <= id) {
+            newCapacity *= 2;
+        }
+        long size = HEADER_SIZE + (long) newCapacity * SLOT_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new ManagerSaveException("Превышен размер файла задач: " + file.getPath(), null);
+        }
+        try {
+            slots.force();
+            slots = slotsChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка расширения файла задач: " + file.getPath(), e);
+        }
+        capacity = newCapacity;
+        slots.putInt(8, capacity);
+    }
+
+    private String readString(int offset, int length) {
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        heap.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void writeString(int offsetField, int lengthField, String value, boolean reuse) {
+        if (value == null) {
+            slots.putInt(lengthField, -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int offset;
+        if (reuse && bytes.length <= slots.getInt(lengthField)) {
+            offset = slots.getInt(offsetField);
+        } else {
+            offset = allocate(bytes.length);
+        }
+        heap.put(offset, bytes);
+        slots.putInt(offsetField, offset);
+        slots.putInt(lengthField, bytes.length);
+    }
+
+    private int allocate(int length) {
+        long required = (long) heapTop + length;
+        if (required > heap.capacity()) {
+            long size = heap.capacity();
+            while (size < required) {
+                size *= 2;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new ManagerSaveException("Превышен размер файла задач: " + file.getPath(), null);
+            }
+            try {
+                heap.force();
+                heap = heapChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка расширения файла задач: " + file.getPath(), e);
+            }
+        }
+        int offset = heapTop;
+        heapTop += length;
+        heap.putInt(8, heapTop);
+        return offset;
+    }
+}
@@ -0,0 +1,163 @@
+package manager;
+
+import model.Task;
+import util.TaskConverterCsv;
+import util.TaskType;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class MutationJournal {
+    enum Op {
+        PUT,
+        DELETE,
+        CLEAR,
+        SHIFT,
+        VIEW,
+        BEGIN,
+        COMMIT,
+        ABORT
+    }
+
+    private final File file;
+
+    MutationJournal(File file) {
+        this.file = file;
+    }
+
+    static String put(Task task) {
+        return Op.PUT + "," + TaskConverterCsv.toString(task);
+    }
+
+    static String delete(TaskType type, int id) {
+        return Op.DELETE + "," + type + "," + id;
+    }
+
+    static String clear(TaskType type) {
+        return Op.CLEAR + "," + type;
+    }
+
+    static String shift(LocalDateTime from, Duration delta) {
+        return Op.SHIFT + "," + from + "," + delta;
+    }
+
+    static String view(int id) {
+        return Op.VIEW + "," + id;
+    }
+
+    static String batch(List<String> records) {
+        if (records.size() == 1) return records.get(0);
+        return Op.BEGIN + "," + records.size() + "\n" + String.join("\n", records) + "\n" + Op.COMMIT;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    boolean exists() {
+        return file.exists();
+    }
+
+    void append(String record) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, true))) {
+            writer.write(record);
+            writer.write("\n");
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка записи в журнал: " + file.getPath(), e);
+        }
+    }
+
+    List<String> readAll() {
+        return read(false);
+    }
+
+    List<String> recover() {
+        return read(true);
+    }
+
+    private List<String> read(boolean recover) {
+        List<String> records = new ArrayList<>();
+        if (!file.exists()) return records;
+        boolean torn = recover && endsWithTornRecord();
+        List<String> batch = null;
+        int expected = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line = reader.readLine();
+            while (line != null) {
+                String next = reader.readLine();
+                if (line.isEmpty() || (next == null && torn)) {
+                    line = next;
+                    continue;
+                }
+                if (line.startsWith(Op.BEGIN + ",")) {
+                    batch = new ArrayList<>();
+                    expected = batchSize(line);
+                } else if (line.equals(Op.COMMIT.name())) {
+                    if (batch != null && batch.size() == expected) {
+                        records.addAll(batch);
+                    }
+                    batch = null;
+                } else if (line.equals(Op.ABORT.name())) {
+                    batch = null;
+                } else if (batch != null) {
+                    batch.add(line);
+                } else {
+                    records.add(line);
+                }
+                line = next;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала: " + file.getPath(), e);
+        }
+        if (recover && batch != null) {
+            append("\n" + Op.ABORT);
+        } else if (torn) {
+            append("");
+        }
+        return records;
+    }
+
+    private boolean endsWithTornRecord() {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.length() == 0) return false;
+            raf.seek(raf.length() - 1);
+            return raf.read() != '\n';
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка чтения журнала: " + file.getPath(), e);
+        }
+    }
+
+    private static int batchSize(String line) {
+        try {
+            return Integer.parseInt(line.substring(Op.BEGIN.name().length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    void moveTo(MutationJournal target) {
+        if (!file.exists()) return;
+        try {
+            if (target.exists()) {
+                Files.write(target.file.toPath(), Files.readAllBytes(file.toPath()), StandardOpenOption.APPEND);
+                Files.delete(file.toPath());
+            } else {
+                Files.move(file.toPath(), target.file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка переноса журнала: " + file.getPath(), e);
+        }
+    }
+
+    void truncate() {
+        if (file.exists() && !file.delete()) {
+            throw new ManagerSaveException("Не удалось очистить журнал: " + file.getPath(), null);
+        }
+    }
+}
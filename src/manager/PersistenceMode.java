@@ -0,0 +1,7 @@
+package manager;
+
+public enum PersistenceMode {
+    SNAPSHOT,
+    JOURNAL,
+    WRITE_BEHIND
+}
@@ -0,0 +1,78 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import util.IntLinkedSet;
+import util.PersistentSortedMap;
+
+final class Republisher {
+    final IntLinkedSet removed = new IntLinkedSet();
+    private final InMemoryTaskManager source;
+    private PersistentSortedMap<Integer, Task> tasks;
+    private PersistentSortedMap<Integer, Epic> epics;
+    private PersistentSortedMap<Integer, SubTask> subtasks;
+    private PersistentSortedMap<Long, SubTask> members;
+    private PersistentSortedMap<Integer, TaskSnapshot.EpicTiming> timings;
+    private PersistentSortedMap<Task, Task> prioritized;
+    private PersistentSortedMap<Task, Task> intervals;
+
+    Republisher(TaskSnapshot base, InMemoryTaskManager source) {
+        this.source = source;
+        tasks = base.tasks;
+        epics = base.epics;
+        subtasks = base.subtasks;
+        members = base.members;
+        timings = base.timings;
+        prioritized = base.prioritized;
+        intervals = base.intervals;
+    }
+
+    void apply(int id) {
+        Task old = tasks.get(id);
+        if (old != null) {
+            tasks = tasks.remove(id);
+        } else if ((old = epics.get(id)) != null) {
+            epics = epics.remove(id);
+            timings = timings.remove(id);
+        } else if ((old = subtasks.get(id)) != null) {
+            subtasks = subtasks.remove(id);
+            members = members.remove(TaskSnapshot.memberKey((SubTask) old));
+        }
+        if (old != null && old.getStartTime() != null) {
+            prioritized = prioritized.remove(old);
+        }
+        if (old != null && IntervalIndex.isScheduled(old)) {
+            intervals = intervals.remove(old);
+        }
+        Task live = source.items.get(id);
+        if (live == null) {
+            removed.add(id);
+            return;
+        }
+        Task copy = InMemoryHistoryManager.headerOf(live);
+        switch (copy.getType()) {
+            case TASK -> tasks = tasks.put(id, copy);
+            case EPIC -> {
+                epics = epics.put(id, (Epic) copy);
+                timings = timings.put(id, new TaskSnapshot.EpicTiming(source.getEpicStartTime(id),
+                        source.getEpicEndTime(id), source.getEpicDuration(id)));
+            }
+            case SUBTASK -> {
+                subtasks = subtasks.put(id, (SubTask) copy);
+                members = members.put(TaskSnapshot.memberKey((SubTask) copy), (SubTask) copy);
+            }
+        }
+        if (copy instanceof Epic) return;
+        if (copy.getStartTime() != null) {
+            prioritized = prioritized.put(copy, copy);
+        }
+        if (IntervalIndex.isScheduled(copy)) {
+            intervals = intervals.put(copy, copy);
+        }
+    }
+
+    TaskSnapshot build(PersistentSortedMap<Long, Task> history) {
+        return new TaskSnapshot(tasks, epics, subtasks, members, timings, prioritized, intervals, history);
+    }
+}
@@ -0,0 +1,137 @@
+package manager;
+
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+class Schedule {
+    static final Comparator<Task> ORDER = (t1, t2) -> {
+        if (t1.getStartTime() == null || t2.getStartTime() == null) return Integer.compare(t1.getId(), t2.getId());
+        int byStart = t1.getStartTime().compareTo(t2.getStartTime());
+        return byStart != 0 ? byStart : Integer.compare(t1.getId(), t2.getId());
+    };
+
+    private final TreeSet<Task> prioritizedTasks = new TreeSet<>(ORDER);
+    private final IntervalIndex intervalIndex = new IntervalIndex();
+
+    boolean overlaps(Task task) {
+        return intervalIndex.overlaps(task);
+    }
+
+    void add(Task task) {
+        if (task.getStartTime() != null) {
+            prioritizedTasks.add(task);
+            intervalIndex.add(task);
+        }
+    }
+
+    void addAll(Collection<? extends Task> tasks) {
+        List<Task> scheduled = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (task.getStartTime() != null) {
+                scheduled.add(task);
+            }
+        }
+        prioritizedTasks.addAll(prioritizedTasks.isEmpty() ? SortedListView.of(scheduled, ORDER) : scheduled);
+        intervalIndex.addAll(scheduled);
+    }
+
+    void remove(Task task) {
+        if (task != null && task.getStartTime() != null) {
+            prioritizedTasks.remove(task);
+            intervalIndex.remove(task);
+        }
+    }
+
+    void reserve(List<? extends Task> tasks) {
+        tasks.forEach(this::remove);
+        for (int i = 0; i < tasks.size(); i++) {
+            if (overlaps(tasks.get(i))) {
+                tasks.subList(i, tasks.size()).forEach(this::add);
+                throw new IllegalArgumentException("Данная задача пересекается с другой по времени выполнения");
+            }
+            add(tasks.get(i));
+        }
+    }
+
+    List<Task> getAll() {
+        return new ArrayList<>(prioritizedTasks);
+    }
+
+    List<Task> getWindow(LocalDateTime from, LocalDateTime to) {
+        checkWindow(from, to);
+        List<Task> result = new ArrayList<>();
+        Task covering = intervalIndex.covering(from);
+        if (covering != null) {
+            result.add(covering);
+        }
+        result.addAll(prioritizedTasks.subSet(IntervalIndex.probe(from), true, IntervalIndex.probe(to), false));
+        return result;
+    }
+
+    List<Task> getNext(LocalDateTime after, int limit) {
+        checkNext(after, limit);
+        List<Task> result = new ArrayList<>(Math.min(limit, prioritizedTasks.size()));
+        Iterator<Task> iterator = prioritizedTasks.tailSet(IntervalIndex.probe(after), true).iterator();
+        while (result.size() < limit && iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        checkSlot(from, duration);
+        return intervalIndex.findFreeSlot(from, duration);
+    }
+
+    List<Task> prepareShift(LocalDateTime from, Duration delta) {
+        if (from == null || delta == null) {
+            throw new IllegalArgumentException("Начало сдвига и величина сдвига не могут быть null");
+        }
+        NavigableSet<Task> tail = prioritizedTasks.tailSet(IntervalIndex.probe(from), true);
+        if (tail.isEmpty() || delta.isZero()) return new ArrayList<>();
+        if (delta.isNegative()) {
+            LocalDateTime boundary = intervalIndex.endBefore(from);
+            Task first = tail.stream().filter(IntervalIndex::isScheduled).findFirst().orElse(null);
+            if (boundary != null && first != null && first.getStartTime().plus(delta).isBefore(boundary)) {
+                throw new IllegalArgumentException("Сдвиг приводит к пересечению с предыдущими задачами");
+            }
+        }
+        return new ArrayList<>(tail);
+    }
+
+    static void checkWindow(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Границы интервала не могут быть null");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец интервала не может быть раньше начала");
+        }
+    }
+
+    static void checkNext(LocalDateTime after, int limit) {
+        if (after == null) {
+            throw new IllegalArgumentException("Момент времени не может быть null");
+        }
+        if (limit < 0) {
+            throw new IllegalArgumentException("Количество задач не может быть отрицательным");
+        }
+    }
+
+    static void checkSlot(LocalDateTime from, Duration duration) {
+        if (from == null || duration == null) {
+            throw new IllegalArgumentException("Начало поиска и длительность не могут быть null");
+        }
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность не может быть отрицательной");
+        }
+    }
+}
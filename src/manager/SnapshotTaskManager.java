@@ -0,0 +1,286 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import util.IntLinkedSet;
+import util.IntObjectMap;
+import util.PersistentSortedMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public class SnapshotTaskManager implements TaskManager {
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final IntLinkedSet changed = new IntLinkedSet();
+    private final SnapshotHistory history = new SnapshotHistory();
+    private final InMemoryTaskManager delegate;
+    private final AtomicReference<TaskSnapshot> snapshot = new AtomicReference<>(TaskSnapshot.EMPTY);
+
+    public SnapshotTaskManager() {
+        this(new AtomicIdAllocator());
+    }
+
+    public SnapshotTaskManager(IdAllocator idAllocator) {
+        this.delegate = new InMemoryTaskManager(history, idAllocator);
+        delegate.observeChanges(changed::add);
+    }
+
+    public TaskSnapshot snapshot() {
+        return snapshot.get();
+    }
+
+    private static final class SnapshotHistory implements HistoryManager {
+        private final IntObjectMap<Long> sequenceById = new IntObjectMap<>();
+        private volatile PersistentSortedMap<Long, Task> entries = PersistentSortedMap.empty(Long::compare);
+        private long sequence;
+
+        @Override
+        public synchronized void add(Task task) {
+            if (task == null) return;
+            remove(task.getId());
+            Task copy = InMemoryHistoryManager.headerOf(task);
+            copy.setViewed(true);
+            sequenceById.put(copy.getId(), Long.valueOf(++sequence));
+            entries = entries.put(sequence, copy);
+        }
+
+        @Override
+        public synchronized void remove(int id) {
+            Long previous = sequenceById.remove(id);
+            if (previous != null) {
+                entries = entries.remove(previous);
+            }
+        }
+
+        @Override
+        public List<Task> getHistory() {
+            return entries.values();
+        }
+    }
+
+    private <T> T write(Supplier<T> writer) {
+        writeLock.lock();
+        try {
+            return writer.get();
+        } finally {
+            publish();
+            writeLock.unlock();
+        }
+    }
+
+    private void write(Runnable writer) {
+        write(() -> {
+            writer.run();
+            return null;
+        });
+    }
+
+    private void publish() {
+        if (changed.isEmpty()) {
+            publishHistory();
+            return;
+        }
+        Republisher republisher = new Republisher(snapshot.get(), delegate);
+        changed.forEach(republisher::apply);
+        changed.clear();
+        TaskSnapshot current;
+        do {
+            current = snapshot.get();
+        } while (!snapshot.compareAndSet(current, republisher.build(history.entries)));
+        republisher.removed.forEach(history::remove);
+        publishHistory();
+    }
+
+    private void publishHistory() {
+        while (true) {
+            TaskSnapshot current = snapshot.get();
+            PersistentSortedMap<Long, Task> entries = history.entries;
+            if (current.history == entries || snapshot.compareAndSet(current, current.withHistory(entries))) return;
+        }
+    }
+
+    private <T extends Task> Optional<T> view(int id, Function<TaskSnapshot, Optional<T>> lookup) {
+        Optional<T> task = lookup.apply(snapshot.get());
+        if (task.isEmpty()) return task;
+        history.add(task.get());
+        if (!snapshot.get().contains(id)) {
+            history.remove(id);
+        }
+        publishHistory();
+        return task;
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        delegate.addChangeListener(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        delegate.removeChangeListener(listener);
+    }
+
+    public boolean hasIntersection(Task task) {
+        return snapshot.get().hasIntersection(task);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return snapshot.get().getAllTasks();
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        write(delegate::deleteAllTasks);
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        return view(id, current -> current.getTaskById(id));
+    }
+
+    @Override
+    public void createTask(Task task) {
+        write(() -> delegate.createTask(task));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        write(() -> delegate.updateTask(task));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        write(() -> delegate.deleteTaskById(id));
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return snapshot.get().getAllEpics();
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        write(delegate::deleteAllEpics);
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        return view(id, current -> current.getEpicById(id));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        write(() -> delegate.createEpic(epic));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        write(() -> delegate.updateEpic(epic));
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        write(() -> delegate.deleteEpicById(id));
+    }
+
+    @Override
+    public List<SubTask> getAllSubTasks() {
+        return snapshot.get().getAllSubTasks();
+    }
+
+    @Override
+    public void deleteAllSubTasks() {
+        write(delegate::deleteAllSubTasks);
+    }
+
+    @Override
+    public Optional<SubTask> getSubTaskById(int id) {
+        return view(id, current -> current.getSubTaskById(id));
+    }
+
+    @Override
+    public void createSubTask(SubTask subtask) {
+        write(() -> delegate.createSubTask(subtask));
+    }
+
+    @Override
+    public void updateSubTask(SubTask subtask) {
+        write(() -> delegate.updateSubTask(subtask));
+    }
+
+    @Override
+    public void deleteSubTaskById(int id) {
+        write(() -> delegate.deleteSubTaskById(id));
+    }
+
+    @Override
+    public List<SubTask> getSubTasksOfEpic(int epicId) {
+        return snapshot.get().getSubTasksOfEpic(epicId);
+    }
+
+    @Override
+    public Optional<Task> getAnyById(int id) {
+        return view(id, current -> current.getAnyById(id));
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return snapshot.get().getHistory();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return snapshot.get().getPrioritizedTasks();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return snapshot.get().getPrioritizedTasks(from, to);
+    }
+
+    @Override
+    public List<Task> getNextPrioritizedTasks(LocalDateTime after, int limit) {
+        return snapshot.get().getNextPrioritizedTasks(after, limit);
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return snapshot.get().findFreeSlot(from, duration);
+    }
+
+    @Override
+    public void createTaskAutoScheduled(Task task, LocalDateTime from) {
+        write(() -> delegate.createTaskAutoScheduled(task, from));
+    }
+
+    @Override
+    public List<Task> shiftAfter(LocalDateTime from, Duration delta) {
+        return write(() -> delegate.shiftAfter(from, delta));
+    }
+
+    @Override
+    public void apply(TaskBatch batch) {
+        write(() -> delegate.apply(batch));
+    }
+
+    @Override
+    public LocalDateTime getEpicStartTime(int epicId) {
+        return snapshot.get().getEpicStartTime(epicId);
+    }
+
+    @Override
+    public LocalDateTime getEpicEndTime(int epicId) {
+        return snapshot.get().getEpicEndTime(epicId);
+    }
+
+    @Override
+    public Duration getEpicDuration(int epicId) {
+        return snapshot.get().getEpicDuration(epicId);
+    }
+}
@@ -0,0 +1,81 @@
+package manager;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+final class SortedListView<T> extends AbstractSet<T> implements SortedSet<T> {
+    private final List<T> items;
+    private final Comparator<? super T> comparator;
+
+    private SortedListView(List<T> items, Comparator<? super T> comparator) {
+        this.items = items;
+        this.comparator = comparator;
+    }
+
+    static <T> SortedListView<T> of(Collection<? extends T> source, Comparator<? super T> comparator) {
+        List<T> sorted = new ArrayList<>(source);
+        sorted.sort(comparator);
+        List<T> distinct = new ArrayList<>(sorted.size());
+        for (T item : sorted) {
+            if (distinct.isEmpty() || comparator.compare(distinct.get(distinct.size() - 1), item) != 0) {
+                distinct.add(item);
+            }
+        }
+        return new SortedListView<>(Collections.unmodifiableList(distinct), comparator);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return items.iterator();
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public Comparator<? super T> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public SortedSet<T> subSet(T fromElement, T toElement) {
+        int from = indexOf(fromElement);
+        return new SortedListView<>(items.subList(from, Math.max(from, indexOf(toElement))), comparator);
+    }
+
+    @Override
+    public SortedSet<T> headSet(T toElement) {
+        return new SortedListView<>(items.subList(0, indexOf(toElement)), comparator);
+    }
+
+    @Override
+    public SortedSet<T> tailSet(T fromElement) {
+        return new SortedListView<>(items.subList(indexOf(fromElement), items.size()), comparator);
+    }
+
+    @Override
+    public T first() {
+        if (items.isEmpty()) throw new NoSuchElementException();
+        return items.get(0);
+    }
+
+    @Override
+    public T last() {
+        if (items.isEmpty()) throw new NoSuchElementException();
+        return items.get(items.size() - 1);
+    }
+
+    private int indexOf(T element) {
+        int index = Collections.binarySearch(items, element, comparator);
+        return index >= 0 ? index : -index - 1;
+    }
+}
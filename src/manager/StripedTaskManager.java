@@ -0,0 +1,604 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+public class StripedTaskManager implements TaskManager {
+    private final Stripe[] stripes;
+    private final HistoryManager historyManager;
+    private final Schedule schedule = new Schedule();
+    final ReentrantReadWriteLock scheduleLock = new ReentrantReadWriteLock();
+    private final Map<Integer, Integer> subtaskEpics = new ConcurrentHashMap<>();
+    private final IdAllocator idAllocator;
+    private boolean batching;
+
+    public StripedTaskManager(HistoryManager historyManager) {
+        this(historyManager, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public StripedTaskManager(HistoryManager historyManager, int stripeCount) {
+        this(historyManager, stripeCount, new AtomicIdAllocator());
+    }
+
+    public StripedTaskManager(HistoryManager historyManager, int stripeCount, IdAllocator idAllocator) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Количество сегментов должно быть положительным");
+        }
+        this.historyManager = new SynchronizedHistoryManager(historyManager);
+        this.idAllocator = idAllocator;
+        int count = 1;
+        while (count < stripeCount) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(i);
+        }
+    }
+
+    private final class Stripe {
+        final int index;
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        boolean moving;
+        final InMemoryTaskManager store = new InMemoryTaskManager(new HistoryManager() {
+            @Override
+            public void add(Task task) {
+                historyManager.add(task);
+            }
+
+            @Override
+            public void remove(int id) {
+                if (!moving && !batching) {
+                    historyManager.remove(id);
+                }
+            }
+
+            @Override
+            public List<Task> getHistory() {
+                return historyManager.getHistory();
+            }
+        }) {
+            @Override
+            public boolean hasIntersection(Task task) {
+                return false;
+            }
+
+            @Override
+            protected void addToHistory(Task task) {
+            }
+        };
+
+        Stripe(int index) {
+            this.index = index;
+        }
+    }
+
+    private Stripe stripeOf(int id) {
+        return stripes[(id ^ (id >>> 16)) & (stripes.length - 1)];
+    }
+
+    private void assignId(Task task) {
+        if (task.getId() == 0) {
+            task.setId(idAllocator.next());
+        } else {
+            idAllocator.advancePast(task.getId());
+        }
+    }
+
+    private <T> T read(Stripe stripe, Function<InMemoryTaskManager, T> reader) {
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            return reader.apply(stripe.store);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T extends Task> Optional<T> view(Stripe stripe, Function<InMemoryTaskManager, Optional<T>> lookup) {
+        Lock lock = stripe.lock.readLock();
+        lock.lock();
+        try {
+            Optional<T> task = lookup.apply(stripe.store);
+            task.ifPresent(historyManager::add);
+            return task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T extends Task> List<T> collect(Function<InMemoryTaskManager, List<T>> reader) {
+        List<T> result = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            result.addAll(read(stripe, reader));
+        }
+        result.sort(Comparator.comparingInt(Task::getId));
+        return result;
+    }
+
+    private void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock.writeLock().lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].lock.writeLock().unlock();
+        }
+    }
+
+    private void lockPair(Stripe first, Stripe second) {
+        if (first.index > second.index) {
+            Stripe swap = first;
+            first = second;
+            second = swap;
+        }
+        first.lock.writeLock().lock();
+        if (second != first) {
+            second.lock.writeLock().lock();
+        }
+    }
+
+    private void unlockPair(Stripe first, Stripe second) {
+        if (second != first) {
+            second.lock.writeLock().unlock();
+        }
+        first.lock.writeLock().unlock();
+    }
+
+    private void reschedule(Task removed, Task added) {
+        if (!inSchedule(removed) && !inSchedule(added)) return;
+        scheduleLock.writeLock().lock();
+        try {
+            schedule.remove(removed);
+            if (!batching && IntervalIndex.isScheduled(added) && schedule.overlaps(added)) {
+                if (removed != null) {
+                    schedule.add(removed);
+                }
+                throw new IllegalArgumentException("Данная задача пересекается с другой по времени выполнения");
+            }
+            schedule.add(added);
+        } finally {
+            scheduleLock.writeLock().unlock();
+        }
+    }
+
+    private void rollback(Task removed, Task added) {
+        if (!inSchedule(removed) && !inSchedule(added)) return;
+        scheduleLock.writeLock().lock();
+        try {
+            schedule.remove(added);
+            if (removed != null) {
+                schedule.add(removed);
+            }
+        } finally {
+            scheduleLock.writeLock().unlock();
+        }
+    }
+
+    private static boolean inSchedule(Task task) {
+        return task != null && task.getStartTime() != null;
+    }
+
+    private void unschedule(List<? extends Task> removed) {
+        if (removed.stream().noneMatch(StripedTaskManager::inSchedule)) return;
+        scheduleLock.writeLock().lock();
+        try {
+            removed.forEach(schedule::remove);
+        } finally {
+            scheduleLock.writeLock().unlock();
+        }
+    }
+
+    private Task lookup(int id) {
+        Task task = stripeOf(id).store.items.get(id);
+        if (task != null) return task;
+        Integer epicId = subtaskEpics.get(id);
+        return epicId != null ? stripeOf(epicId).store.subtasks.get(id) : null;
+    }
+
+    private <T> T readSchedule(Function<Schedule, T> reader) {
+        scheduleLock.readLock().lock();
+        try {
+            return reader.apply(schedule);
+        } finally {
+            scheduleLock.readLock().unlock();
+        }
+    }
+
+    public boolean hasIntersection(Task task) {
+        return readSchedule(s -> s.overlaps(task));
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return collect(InMemoryTaskManager::getAllTasks);
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        lockAll();
+        try {
+            for (Stripe stripe : stripes) {
+                unschedule(stripe.store.getAllTasks());
+                stripe.store.deleteAllTasks();
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Optional<Task> getTaskById(int id) {
+        return view(stripeOf(id), store -> store.getTaskById(id));
+    }
+
+    @Override
+    public void createTask(Task task) {
+        assignId(task);
+        Stripe stripe = stripeOf(task.getId());
+        stripe.lock.writeLock().lock();
+        try {
+            Task old = stripe.store.tasks.get(task.getId());
+            reschedule(old, task);
+            stripe.store.createTask(task);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        Stripe stripe = stripeOf(task.getId());
+        stripe.lock.writeLock().lock();
+        try {
+            Task old = stripe.store.tasks.get(task.getId());
+            if (old == null) return;
+            reschedule(old, task);
+            stripe.store.updateTask(task);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        Stripe stripe = stripeOf(id);
+        stripe.lock.writeLock().lock();
+        try {
+            Task old = stripe.store.tasks.get(id);
+            if (old == null) return;
+            stripe.store.deleteTaskById(id);
+            unschedule(List.of(old));
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Epic> getAllEpics() {
+        return collect(InMemoryTaskManager::getAllEpics);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        lockAll();
+        try {
+            for (Stripe stripe : stripes) {
+                unschedule(stripe.store.getAllSubTasks());
+                stripe.store.deleteAllEpics();
+            }
+            subtaskEpics.clear();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Optional<Epic> getEpicById(int id) {
+        return view(stripeOf(id), store -> store.getEpicById(id));
+    }
+
+    @Override
+    public void createEpic(Epic epic) {
+        assignId(epic);
+        Stripe stripe = stripeOf(epic.getId());
+        stripe.lock.writeLock().lock();
+        try {
+            stripe.store.createEpic(epic);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        Stripe stripe = stripeOf(epic.getId());
+        stripe.lock.writeLock().lock();
+        try {
+            stripe.store.updateEpic(epic);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        Stripe stripe = stripeOf(id);
+        stripe.lock.writeLock().lock();
+        try {
+            List<SubTask> removed = stripe.store.getSubTasksOfEpic(id);
+            stripe.store.deleteEpicById(id);
+            unschedule(removed);
+            removed.forEach(subtask -> subtaskEpics.remove(subtask.getId()));
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<SubTask> getAllSubTasks() {
+        return collect(InMemoryTaskManager::getAllSubTasks);
+    }
+
+    @Override
+    public void deleteAllSubTasks() {
+        lockAll();
+        try {
+            for (Stripe stripe : stripes) {
+                unschedule(stripe.store.getAllSubTasks());
+                stripe.store.deleteAllSubTasks();
+            }
+            subtaskEpics.clear();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Optional<SubTask> getSubTaskById(int id) {
+        while (true) {
+            Integer epicId = subtaskEpics.get(id);
+            if (epicId == null) return Optional.empty();
+            Optional<SubTask> subtask = view(stripeOf(epicId), store -> store.getSubTaskById(id));
+            if (subtask.isPresent() || epicId.equals(subtaskEpics.get(id))) return subtask;
+        }
+    }
+
+    @Override
+    public void createSubTask(SubTask subtask) {
+        assignId(subtask);
+        Stripe stripe = stripeOf(subtask.getEpicId());
+        stripe.lock.writeLock().lock();
+        try {
+            SubTask old = stripe.store.subtasks.get(subtask.getId());
+            reschedule(old, subtask);
+            try {
+                stripe.store.createSubTask(subtask);
+            } catch (RuntimeException e) {
+                rollback(old, subtask);
+                throw e;
+            }
+            subtaskEpics.put(subtask.getId(), subtask.getEpicId());
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateSubTask(SubTask subtask) {
+        while (true) {
+            Integer oldEpicId = subtaskEpics.get(subtask.getId());
+            if (oldEpicId == null) return;
+            Stripe source = stripeOf(oldEpicId);
+            Stripe target = stripeOf(subtask.getEpicId());
+            lockPair(source, target);
+            try {
+                Integer current = subtaskEpics.get(subtask.getId());
+                if (current == null) return;
+                if (!current.equals(oldEpicId)) continue;
+                SubTask old = source.store.subtasks.get(subtask.getId());
+                if (old == null) return;
+                if (source == target) {
+                    reschedule(old, subtask);
+                    try {
+                        target.store.updateSubTask(subtask);
+                    } catch (RuntimeException e) {
+                        rollback(old, subtask);
+                        throw e;
+                    }
+                } else {
+                    if (subtask.getId() == subtask.getEpicId()) {
+                        throw new IllegalArgumentException("SubTask не может быть своим же эпиком");
+                    }
+                    if (!target.store.epics.containsKey(subtask.getEpicId())) {
+                        throw new IllegalArgumentException("Эпик с id " + subtask.getEpicId() + " не существует.");
+                    }
+                    reschedule(old, subtask);
+                    source.moving = true;
+                    try {
+                        source.store.deleteSubTaskById(subtask.getId());
+                    } finally {
+                        source.moving = false;
+                    }
+                    target.store.createSubTask(subtask);
+                }
+                subtaskEpics.put(subtask.getId(), subtask.getEpicId());
+                return;
+            } finally {
+                unlockPair(source, target);
+            }
+        }
+    }
+
+    @Override
+    public void deleteSubTaskById(int id) {
+        while (true) {
+            Integer epicId = subtaskEpics.get(id);
+            if (epicId == null) return;
+            Stripe stripe = stripeOf(epicId);
+            stripe.lock.writeLock().lock();
+            try {
+                Integer current = subtaskEpics.get(id);
+                if (current == null) return;
+                if (!current.equals(epicId)) continue;
+                SubTask old = stripe.store.subtasks.get(id);
+                if (old == null) return;
+                stripe.store.deleteSubTaskById(id);
+                unschedule(List.of(old));
+                subtaskEpics.remove(id);
+                return;
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public List<SubTask> getSubTasksOfEpic(int epicId) {
+        return read(stripeOf(epicId), store -> store.getSubTasksOfEpic(epicId));
+    }
+
+    @Override
+    public Optional<Task> getAnyById(int id) {
+        Optional<Task> task = view(stripeOf(id), store -> store.getAnyById(id));
+        if (task.isPresent()) return task;
+        return getSubTaskById(id).map(Task.class::cast);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return historyManager.getHistory();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return readSchedule(Schedule::getAll);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        return readSchedule(s -> s.getWindow(from, to));
+    }
+
+    @Override
+    public List<Task> getNextPrioritizedTasks(LocalDateTime after, int limit) {
+        return readSchedule(s -> s.getNext(after, limit));
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        return readSchedule(s -> s.findFreeSlot(from, duration));
+    }
+
+    @Override
+    public void createTaskAutoScheduled(Task task, LocalDateTime from) {
+        if (task instanceof Epic) {
+            throw new IllegalArgumentException("Время эпика вычисляется по его подзадачам");
+        }
+        assignId(task);
+        SubTask subtask = task instanceof SubTask sub ? sub : null;
+        Stripe stripe = stripeOf(subtask != null ? subtask.getEpicId() : task.getId());
+        stripe.lock.writeLock().lock();
+        try {
+            scheduleLock.writeLock().lock();
+            try {
+                task.setStartTime(schedule.findFreeSlot(from, task.getDuration()));
+                schedule.add(task);
+            } finally {
+                scheduleLock.writeLock().unlock();
+            }
+            try {
+                if (subtask != null) {
+                    stripe.store.createSubTask(subtask);
+                    subtaskEpics.put(subtask.getId(), subtask.getEpicId());
+                } else {
+                    stripe.store.createTask(task);
+                }
+            } catch (RuntimeException e) {
+                rollback(null, task);
+                throw e;
+            }
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> shiftAfter(LocalDateTime from, Duration delta) {
+        lockAll();
+        try {
+            scheduleLock.writeLock().lock();
+            try {
+                List<Task> shifted = schedule.prepareShift(from, delta);
+                if (shifted.isEmpty()) return shifted;
+                shifted.forEach(schedule::remove);
+                for (Stripe stripe : stripes) {
+                    stripe.store.shiftAfter(from, delta);
+                }
+                shifted.forEach(schedule::add);
+                return shifted;
+            } finally {
+                scheduleLock.writeLock().unlock();
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void apply(TaskBatch batch) {
+        lockAll();
+        scheduleLock.writeLock().lock();
+        try {
+            BatchTransaction transaction = new BatchTransaction(this, this::lookup);
+            batching = true;
+            try {
+                transaction.run(batch);
+                schedule.reserve(transaction.getChanged());
+            } catch (RuntimeException e) {
+                try {
+                    transaction.rollback();
+                } catch (RuntimeException undoError) {
+                    e.addSuppressed(undoError);
+                }
+                throw e;
+            } finally {
+                batching = false;
+            }
+            transaction.getRemoved().forEach(historyManager::remove);
+        } finally {
+            scheduleLock.writeLock().unlock();
+            unlockAll();
+        }
+    }
+
+    @Override
+    public LocalDateTime getEpicStartTime(int epicId) {
+        return read(stripeOf(epicId), store -> store.getEpicStartTime(epicId));
+    }
+
+    @Override
+    public LocalDateTime getEpicEndTime(int epicId) {
+        return read(stripeOf(epicId), store -> store.getEpicEndTime(epicId));
+    }
+
+    @Override
+    public Duration getEpicDuration(int epicId) {
+        return read(stripeOf(epicId), store -> store.getEpicDuration(epicId));
+    }
+}
@@ -0,0 +1,63 @@
+package manager;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class TaskBatch {
+    enum Kind {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    static final class Op {
+        final Kind kind;
+        final Task task;
+        final int id;
+
+        Op(Kind kind, Task task, int id) {
+            this.kind = kind;
+            this.task = task;
+            this.id = id;
+        }
+    }
+
+    private final List<Op> ops = new ArrayList<>();
+
+    public TaskBatch create(Task task) {
+        ops.add(new Op(Kind.CREATE, requireTask(task), task.getId()));
+        return this;
+    }
+
+    public TaskBatch update(Task task) {
+        ops.add(new Op(Kind.UPDATE, requireTask(task), task.getId()));
+        return this;
+    }
+
+    public TaskBatch delete(int id) {
+        ops.add(new Op(Kind.DELETE, null, id));
+        return this;
+    }
+
+    public int size() {
+        return ops.size();
+    }
+
+    public boolean isEmpty() {
+        return ops.isEmpty();
+    }
+
+    List<Op> getOps() {
+        return Collections.unmodifiableList(ops);
+    }
+
+    private static Task requireTask(Task task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Задача в пакете не может быть null");
+        }
+        return task;
+    }
+}
@@ -50,10 +50,24 @@ public interface TaskManager {
 
     List<SubTask> getSubTasksOfEpic(int epicId);
 
+    Optional<Task> getAnyById(int id);
+
     List<Task> getHistory();
 
     List<Task> getPrioritizedTasks();
 
+    List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    List<Task> getNextPrioritizedTasks(LocalDateTime after, int limit);
+
+    LocalDateTime findFreeSlot(LocalDateTime from, Duration duration);
+
+    void createTaskAutoScheduled(Task task, LocalDateTime from);
+
+    List<Task> shiftAfter(LocalDateTime from, Duration delta);
+
+    void apply(TaskBatch batch);
+
     LocalDateTime getEpicStartTime(int epicId);
 
     LocalDateTime getEpicEndTime(int epicId);
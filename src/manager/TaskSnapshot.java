@@ -0,0 +1,254 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import util.PersistentSortedMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+public final class TaskSnapshot {
+    static final TaskSnapshot EMPTY = new TaskSnapshot(
+            PersistentSortedMap.empty(Integer::compare),
+            PersistentSortedMap.empty(Integer::compare),
+            PersistentSortedMap.empty(Integer::compare),
+            PersistentSortedMap.empty(Long::compare),
+            PersistentSortedMap.empty(Integer::compare),
+            PersistentSortedMap.empty(Schedule.ORDER),
+            PersistentSortedMap.empty(IntervalIndex.ORDER),
+            PersistentSortedMap.empty(Long::compare)
+    );
+
+    static final class EpicTiming {
+        final LocalDateTime start;
+        final LocalDateTime end;
+        final Duration duration;
+
+        EpicTiming(LocalDateTime start, LocalDateTime end, Duration duration) {
+            this.start = start;
+            this.end = end;
+            this.duration = duration;
+        }
+    }
+
+    final PersistentSortedMap<Integer, Task> tasks;
+    final PersistentSortedMap<Integer, Epic> epics;
+    final PersistentSortedMap<Integer, SubTask> subtasks;
+    final PersistentSortedMap<Long, SubTask> members;
+    final PersistentSortedMap<Integer, EpicTiming> timings;
+    final PersistentSortedMap<Task, Task> prioritized;
+    final PersistentSortedMap<Task, Task> intervals;
+    final PersistentSortedMap<Long, Task> history;
+
+    TaskSnapshot(PersistentSortedMap<Integer, Task> tasks,
+                 PersistentSortedMap<Integer, Epic> epics,
+                 PersistentSortedMap<Integer, SubTask> subtasks,
+                 PersistentSortedMap<Long, SubTask> members,
+                 PersistentSortedMap<Integer, EpicTiming> timings,
+                 PersistentSortedMap<Task, Task> prioritized,
+                 PersistentSortedMap<Task, Task> intervals,
+                 PersistentSortedMap<Long, Task> history) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+        this.members = members;
+        this.timings = timings;
+        this.prioritized = prioritized;
+        this.intervals = intervals;
+        this.history = history;
+    }
+
+    TaskSnapshot withHistory(PersistentSortedMap<Long, Task> history) {
+        return new TaskSnapshot(tasks, epics, subtasks, members, timings, prioritized, intervals, history);
+    }
+
+    static long memberKey(SubTask subtask) {
+        return memberKey(subtask.getEpicId(), subtask.getId());
+    }
+
+    private static long memberKey(int epicId, int subtaskId) {
+        return ((long) epicId << 32) | (subtaskId & 0xFFFFFFFFL);
+    }
+
+    public List<Task> getAllTasks() {
+        return copying(tasks.values());
+    }
+
+    public List<Epic> getAllEpics() {
+        return copying(epics.values());
+    }
+
+    public List<SubTask> getAllSubTasks() {
+        return copying(subtasks.values());
+    }
+
+    public List<Task> getPrioritizedTasks() {
+        return copying(prioritized.values());
+    }
+
+    public List<Task> getHistory() {
+        return copying(history.values());
+    }
+
+    public Optional<Task> getTaskById(int id) {
+        return Optional.ofNullable(tasks.get(id)).map(this::copy);
+    }
+
+    public Optional<Epic> getEpicById(int id) {
+        return Optional.ofNullable(epics.get(id)).map(this::copy);
+    }
+
+    public Optional<SubTask> getSubTaskById(int id) {
+        return Optional.ofNullable(subtasks.get(id)).map(this::copy);
+    }
+
+    public Optional<Task> getAnyById(int id) {
+        Task task = tasks.get(id);
+        if (task == null) task = epics.get(id);
+        if (task == null) task = subtasks.get(id);
+        return Optional.ofNullable(task).map(this::copy);
+    }
+
+    boolean contains(int id) {
+        return tasks.get(id) != null || epics.get(id) != null || subtasks.get(id) != null;
+    }
+
+    public List<SubTask> getSubTasksOfEpic(int epicId) {
+        if (epics.get(epicId) == null) {
+            return Collections.emptyList();
+        }
+        List<SubTask> result = new ArrayList<>();
+        Iterator<SubTask> iterator = members.valuesFrom(memberKey(epicId, 0));
+        while (iterator.hasNext()) {
+            SubTask subtask = iterator.next();
+            if (subtask.getEpicId() != epicId) break;
+            result.add(copy(subtask));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public List<Task> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        Schedule.checkWindow(from, to);
+        List<Task> result = new ArrayList<>();
+        Iterator<Task> before = intervals.valuesBefore(IntervalIndex.probe(from));
+        if (before.hasNext()) {
+            Task covering = before.next();
+            if (covering.getEndTime().isAfter(from)) {
+                result.add(copy(covering));
+            }
+        }
+        Task end = IntervalIndex.probe(to);
+        Iterator<Task> iterator = prioritized.valuesFrom(IntervalIndex.probe(from));
+        while (iterator.hasNext()) {
+            Task task = iterator.next();
+            if (Schedule.ORDER.compare(task, end) >= 0) break;
+            result.add(copy(task));
+        }
+        return result;
+    }
+
+    public List<Task> getNextPrioritizedTasks(LocalDateTime after, int limit) {
+        Schedule.checkNext(after, limit);
+        List<Task> result = new ArrayList<>(Math.min(limit, prioritized.size()));
+        Iterator<Task> iterator = prioritized.valuesFrom(IntervalIndex.probe(after));
+        while (result.size() < limit && iterator.hasNext()) {
+            result.add(copy(iterator.next()));
+        }
+        return result;
+    }
+
+    public LocalDateTime findFreeSlot(LocalDateTime from, Duration duration) {
+        Schedule.checkSlot(from, duration);
+        Iterator<Task> before = intervals.valuesBefore(IntervalIndex.probe(from));
+        LocalDateTime end = before.hasNext() ? before.next().getEndTime() : null;
+        Iterator<Task> iterator = intervals.valuesFrom(IntervalIndex.probe(from));
+        while (iterator.hasNext()) {
+            Task task = iterator.next();
+            LocalDateTime candidate = later(end, from);
+            if (!candidate.plus(duration).isAfter(task.getStartTime())) return candidate;
+            end = later(end, task.getEndTime());
+        }
+        return later(end, from);
+    }
+
+    public boolean hasIntersection(Task task) {
+        if (!IntervalIndex.isScheduled(task)) return false;
+        Iterator<Task> iterator = intervals.valuesBefore(IntervalIndex.probe(task.getEndTime()));
+        while (iterator.hasNext()) {
+            Task candidate = iterator.next();
+            if (candidate.getId() == task.getId()) continue;
+            return candidate.getEndTime().isAfter(task.getStartTime());
+        }
+        return false;
+    }
+
+    public LocalDateTime getEpicStartTime(int epicId) {
+        EpicTiming timing = timings.get(epicId);
+        return timing != null ? timing.start : null;
+    }
+
+    public LocalDateTime getEpicEndTime(int epicId) {
+        EpicTiming timing = timings.get(epicId);
+        return timing != null ? timing.end : null;
+    }
+
+    public Duration getEpicDuration(int epicId) {
+        EpicTiming timing = timings.get(epicId);
+        return timing != null ? timing.duration : null;
+    }
+
+    private static LocalDateTime later(LocalDateTime a, LocalDateTime b) {
+        return a == null || b.isAfter(a) ? b : a;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> T copy(T task) {
+        Task copy = InMemoryHistoryManager.headerOf(task);
+        if (copy instanceof Epic epic) {
+            Iterator<SubTask> iterator = members.valuesFrom(memberKey(epic.getId(), 0));
+            while (iterator.hasNext()) {
+                SubTask subtask = iterator.next();
+                if (subtask.getEpicId() != epic.getId()) break;
+                epic.addSubTaskId(subtask.getId());
+            }
+        }
+        return (T) copy;
+    }
+
+    private <T extends Task> List<T> copying(List<T> values) {
+        return new AbstractList<>() {
+            @Override
+            public T get(int index) {
+                return copy(values.get(index));
+            }
+
+            @Override
+            public int size() {
+                return values.size();
+            }
+
+            @Override
+            public Iterator<T> iterator() {
+                Iterator<T> source = values.iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return source.hasNext();
+                    }
+
+                    @Override
+                    public T next() {
+                        return copy(source.next());
+                    }
+                };
+            }
+        };
+    }
+}
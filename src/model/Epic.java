@@ -1,25 +1,39 @@
 package model;
 
+import util.IntLinkedSet;
 import util.TaskStatus;
 import util.TaskType;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.IntConsumer;
 
 public class Epic extends Task {
-    private List<Integer> subtaskIds = new ArrayList<>();
+    private final IntLinkedSet subtaskIds = new IntLinkedSet();
 
     public Epic(int id, String title, String details, TaskStatus status) {
         super(id, title, details, status);
     }
 
     public List<Integer> getSubTaskIds() {
-        return subtaskIds;
+        return subtaskIds.toList();
     }
 
     public void setSubTaskIds(List<Integer> subtaskIds) {
-        this.subtaskIds = subtaskIds;
+        this.subtaskIds.clear();
+        subtaskIds.forEach(this.subtaskIds::add);
+    }
+
+    public void forEachSubTaskId(IntConsumer action) {
+        subtaskIds.forEach(action);
+    }
+
+    public int getSubTaskCount() {
+        return subtaskIds.size();
+    }
+
+    public void clearSubTaskIds() {
+        subtaskIds.clear();
     }
 
     public void addSubTaskId(int id) {
@@ -30,7 +44,7 @@ public class Epic extends Task {
     }
 
     public void removeSubTaskId(int id) {
-        subtaskIds.remove((Integer) id);
+        subtaskIds.remove(id);
     }
 
     @Override
@@ -59,7 +73,7 @@ public class Epic extends Task {
                 ", details='" + getDetails() + '\'' +
                 ", status=" + getStatus() +
                 ", viewed=" + isViewed() +
-                ", subtaskIds=" + subtaskIds +
+                ", subtaskIds=" + subtaskIds.toList() +
                 '}';
     }
 }
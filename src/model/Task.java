@@ -15,6 +15,7 @@ public class Task {
     private boolean viewed;
     private Duration duration;
     private LocalDateTime startTime;
+    private TaskBodySource bodySource;
 
     public Task(int id, String title, String details, TaskStatus status) {
         this.title = title;
@@ -29,25 +30,44 @@ public class Task {
     }
 
     public void setId(int id) {
+        loadBody();
         this.id = id;
     }
 
     public String getTitle() {
-        return title;
+        return bodySource != null ? bodySource.getTitle(id) : title;
     }
 
     public void setTitle(String title) {
+        loadBody();
         this.title = title;
     }
 
     public String getDetails() {
-        return details;
+        return bodySource != null ? bodySource.getDetails(id) : details;
     }
 
     public void setDetails(String details) {
+        loadBody();
         this.details = details;
     }
 
+    public void setBodySource(TaskBodySource bodySource) {
+        this.bodySource = bodySource;
+        if (bodySource != null) {
+            this.title = null;
+            this.details = null;
+        }
+    }
+
+    private void loadBody() {
+        if (bodySource != null) {
+            title = bodySource.getTitle(id);
+            details = bodySource.getDetails(id);
+            bodySource = null;
+        }
+    }
+
     public TaskStatus getStatus() {
         return status;
     }
@@ -116,7 +136,7 @@ public class Task {
 
     @Override
     public String toString() {
-        return "Task{" + "id=" + id + ", title='" + title + '\'' + ", details='" + details + '\'' + ", status=" + status + ", viewed=" + viewed + '}';
+        return "Task{" + "id=" + id + ", title='" + getTitle() + '\'' + ", details='" + getDetails() + '\'' + ", status=" + status + ", viewed=" + viewed + '}';
     }
 }
 
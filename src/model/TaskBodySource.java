@@ -0,0 +1,7 @@
+package model;
+
+public interface TaskBodySource {
+    String getTitle(int id);
+
+    String getDetails(int id);
+}
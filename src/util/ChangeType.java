@@ -0,0 +1,8 @@
+package util;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    STATUS_CHANGED
+}
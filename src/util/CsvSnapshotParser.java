@@ -0,0 +1,123 @@
+package util;
+
+import model.Task;
+
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class CsvSnapshotParser {
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final String content;
+    private final int tasksStart;
+    private final int tasksEnd;
+
+    public CsvSnapshotParser(String content) {
+        this.content = content;
+        int headerEnd = content.indexOf('\n');
+        this.tasksStart = headerEnd < 0 ? content.length() : headerEnd + 1;
+        this.tasksEnd = findBlankLine(tasksStart);
+    }
+
+    public List<Task> parseTasks(ForkJoinPool pool) {
+        return pool.invoke(new ChunkTask(this, tasksStart, tasksEnd));
+    }
+
+    public String getHistoryLine() {
+        return getTrailerLine(0);
+    }
+
+    public int getHighWaterMark() {
+        String line = getTrailerLine(1);
+        if (line.isEmpty()) return 0;
+        try {
+            return Integer.parseInt(line.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ошибка при обработке счётчика id: " + line + ". Причина: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private String getTrailerLine(int index) {
+        if (tasksEnd >= content.length()) return "";
+        int lineStart = content.indexOf('\n', tasksEnd) + 1;
+        for (int i = 0; i < index && lineStart > 0 && lineStart < content.length(); i++) {
+            lineStart = content.indexOf('\n', lineStart) + 1;
+        }
+        if (lineStart == 0 || lineStart >= content.length()) return "";
+        int lineEnd = content.indexOf('\n', lineStart);
+        return stripCarriageReturn(content.substring(lineStart, lineEnd < 0 ? content.length() : lineEnd));
+    }
+
+    private int findBlankLine(int from) {
+        int lineStart = from;
+        while (lineStart < content.length()) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0) lineEnd = content.length();
+            if (lineEnd == lineStart || (lineEnd == lineStart + 1 && content.charAt(lineStart) == '\r')) {
+                return lineStart;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return content.length();
+    }
+
+    private List<Task> parseRange(int from, int to) {
+        List<Task> result = new ArrayList<>();
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0 || lineEnd > to) lineEnd = to;
+            int end = lineEnd > lineStart && content.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            if (end > lineStart) {
+                try {
+                    result.add(TaskConverterCsv.parse(content, lineStart, end));
+                } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+                    System.err.println("Ошибка при обработке строки: " + content.substring(lineStart, end)
+                            + ". Причина: " + e.getMessage());
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return result;
+    }
+
+    private static String stripCarriageReturn(String line) {
+        return line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+    }
+
+    private static final class ChunkTask extends RecursiveTask<List<Task>> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient CsvSnapshotParser parser;
+        private final int from;
+        private final int to;
+
+        ChunkTask(CsvSnapshotParser parser, int from, int to) {
+            this.parser = parser;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<Task> compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return parser.parseRange(from, to);
+            }
+            int split = parser.content.indexOf('\n', from + (to - from) / 2);
+            if (split < 0 || split + 1 >= to) {
+                return parser.parseRange(from, to);
+            }
+            ChunkTask left = new ChunkTask(parser, from, split + 1);
+            ChunkTask right = new ChunkTask(parser, split + 1, to);
+            left.fork();
+            List<Task> rightResult = right.compute();
+            List<Task> result = left.join();
+            result.addAll(rightResult);
+            return result;
+        }
+    }
+}
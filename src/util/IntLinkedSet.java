@@ -0,0 +1,150 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+public class IntLinkedSet {
+    private static final int MIN_CAPACITY = 8;
+    private static final int NONE = -1;
+
+    private int[] keys = new int[MIN_CAPACITY];
+    private int[] prev = new int[MIN_CAPACITY];
+    private int[] next = new int[MIN_CAPACITY];
+    private boolean[] used = new boolean[MIN_CAPACITY];
+    private int head = NONE;
+    private int tail = NONE;
+    private int size;
+
+    public boolean add(int key) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        for (; used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return false;
+        }
+        keys[slot] = key;
+        used[slot] = true;
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if (tail != NONE) {
+            next[tail] = slot;
+        } else {
+            head = slot;
+        }
+        tail = slot;
+        if (++size > keys.length - (keys.length >> 2)) {
+            resize(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean remove(int key) {
+        int slot = find(key);
+        if (slot == NONE) return false;
+        unlink(slot);
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int candidate = (hole + 1) & mask; used[candidate]; candidate = (candidate + 1) & mask) {
+            int home = slot(keys[candidate], mask);
+            if (((candidate - home) & mask) >= ((candidate - hole) & mask)) {
+                move(candidate, hole);
+                hole = candidate;
+            }
+        }
+        used[hole] = false;
+        size--;
+        return true;
+    }
+
+    public boolean contains(int key) {
+        return find(key) != NONE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        head = NONE;
+        tail = NONE;
+        size = 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            action.accept(keys[slot]);
+        }
+    }
+
+    public List<Integer> toList() {
+        List<Integer> list = new ArrayList<>(size);
+        forEach(list::add);
+        return list;
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+        }
+        return NONE;
+    }
+
+    private void unlink(int slot) {
+        if (prev[slot] != NONE) {
+            next[prev[slot]] = next[slot];
+        } else {
+            head = next[slot];
+        }
+        if (next[slot] != NONE) {
+            prev[next[slot]] = prev[slot];
+        } else {
+            tail = prev[slot];
+        }
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        prev[to] = prev[from];
+        next[to] = next[from];
+        used[to] = true;
+        if (prev[to] != NONE) {
+            next[prev[to]] = to;
+        } else {
+            head = to;
+        }
+        if (next[to] != NONE) {
+            prev[next[to]] = to;
+        } else {
+            tail = to;
+        }
+    }
+
+    private void resize(int capacity) {
+        int[] order = new int[size];
+        int count = 0;
+        for (int slot = head; slot != NONE; slot = next[slot]) {
+            order[count++] = keys[slot];
+        }
+        keys = new int[capacity];
+        prev = new int[capacity];
+        next = new int[capacity];
+        used = new boolean[capacity];
+        head = NONE;
+        tail = NONE;
+        size = 0;
+        for (int key : order) {
+            add(key);
+        }
+    }
+
+    private static int slot(int key, int mask) {
+        return (key ^ (key >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,228 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+public final class PersistentSortedMap<K, V> {
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final int priority;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int size;
+
+        Node(K key, V value, int priority, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Node<K, V> with(Node<K, V> left, Node<K, V> right) {
+            return new Node<>(key, value, priority, left, right);
+        }
+    }
+
+    private final Comparator<? super K> comparator;
+    private final Node<K, V> root;
+
+    private PersistentSortedMap(Comparator<? super K> comparator, Node<K, V> root) {
+        this.comparator = comparator;
+        this.root = root;
+    }
+
+    public static <K, V> PersistentSortedMap<K, V> empty(Comparator<? super K> comparator) {
+        return new PersistentSortedMap<>(comparator, null);
+    }
+
+    public V get(K key) {
+        Node<K, V> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(key, node.key);
+            if (cmp == 0) return node.value;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    public PersistentSortedMap<K, V> put(K key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Значение не может быть null");
+        }
+        return new PersistentSortedMap<>(comparator,
+                insert(root, key, value, ThreadLocalRandom.current().nextInt()));
+    }
+
+    public PersistentSortedMap<K, V> remove(K key) {
+        Node<K, V> updated = delete(root, key);
+        return updated == root ? this : new PersistentSortedMap<>(comparator, updated);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public List<V> values() {
+        return new AbstractList<>() {
+            @Override
+            public V get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                Node<K, V> node = root;
+                while (true) {
+                    int leftSize = PersistentSortedMap.size(node.left);
+                    if (index == leftSize) return node.value;
+                    if (index < leftSize) {
+                        node = node.left;
+                    } else {
+                        index -= leftSize + 1;
+                        node = node.right;
+                    }
+                }
+            }
+
+            @Override
+            public int size() {
+                return PersistentSortedMap.size(root);
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return new InOrderIterator<>(root);
+            }
+        };
+    }
+
+    public Iterator<V> valuesFrom(K fromKey) {
+        InOrderIterator<K, V> iterator = new InOrderIterator<>(null);
+        for (Node<K, V> node = root; node != null; ) {
+            if (comparator.compare(fromKey, node.key) <= 0) {
+                iterator.path.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return iterator;
+    }
+
+    public Iterator<V> valuesBefore(K toKey) {
+        DescendingIterator<K, V> iterator = new DescendingIterator<>();
+        for (Node<K, V> node = root; node != null; ) {
+            if (comparator.compare(node.key, toKey) < 0) {
+                iterator.path.push(node);
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return iterator;
+    }
+
+    private Node<K, V> insert(Node<K, V> node, K key, V value, int priority) {
+        if (node == null) return new Node<>(key, value, priority, null, null);
+        int cmp = comparator.compare(key, node.key);
+        if (cmp == 0) return new Node<>(key, value, node.priority, node.left, node.right);
+        if (cmp < 0) {
+            Node<K, V> left = insert(node.left, key, value, priority);
+            if (left.priority > node.priority) {
+                return left.with(left.left, node.with(left.right, node.right));
+            }
+            return node.with(left, node.right);
+        }
+        Node<K, V> right = insert(node.right, key, value, priority);
+        if (right.priority > node.priority) {
+            return right.with(node.with(node.left, right.left), right.right);
+        }
+        return node.with(node.left, right);
+    }
+
+    private Node<K, V> delete(Node<K, V> node, K key) {
+        if (node == null) return null;
+        int cmp = comparator.compare(key, node.key);
+        if (cmp == 0) return merge(node.left, node.right);
+        if (cmp < 0) {
+            Node<K, V> left = delete(node.left, key);
+            return left == node.left ? node : node.with(left, node.right);
+        }
+        Node<K, V> right = delete(node.right, key);
+        return right == node.right ? node : node.with(node.left, right);
+    }
+
+    private static <K, V> Node<K, V> merge(Node<K, V> left, Node<K, V> right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            return left.with(left.left, merge(left.right, right));
+        }
+        return right.with(merge(left, right.left), right.right);
+    }
+
+    private static int size(Node<?, ?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class InOrderIterator<K, V> implements Iterator<V> {
+        private final Deque<Node<K, V>> path = new ArrayDeque<>();
+
+        InOrderIterator(Node<K, V> root) {
+            descend(root);
+        }
+
+        private void descend(Node<K, V> node) {
+            for (; node != null; node = node.left) {
+                path.push(node);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public V next() {
+            if (path.isEmpty()) throw new NoSuchElementException();
+            Node<K, V> node = path.pop();
+            descend(node.right);
+            return node.value;
+        }
+    }
+
+    private static final class DescendingIterator<K, V> implements Iterator<V> {
+        private final Deque<Node<K, V>> path = new ArrayDeque<>();
+
+        @Override
+        public boolean hasNext() {
+            return !path.isEmpty();
+        }
+
+        @Override
+        public V next() {
+            if (path.isEmpty()) throw new NoSuchElementException();
+            Node<K, V> node = path.pop();
+            for (Node<K, V> child = node.left; child != null; child = child.right) {
+                path.push(child);
+            }
+            return node.value;
+        }
+    }
+}
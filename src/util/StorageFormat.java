@@ -0,0 +1,6 @@
+package util;
+
+public enum StorageFormat {
+    CSV,
+    BINARY
+}
@@ -0,0 +1,206 @@
+package util;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+public class TaskConverterBinary {
+    private static final byte[] MAGIC = {'K', 'B', 'I', 'N'};
+    private static final int VERSION = 1;
+    private static final int HAS_DURATION = 1;
+    private static final int HAS_START_TIME = 2;
+    private static final int HAS_NANOS = 4;
+
+    public static boolean isBinary(File file) {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] header = in.readNBytes(MAGIC.length);
+            return Arrays.equals(header, MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public static void writeHeader(OutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.write(VERSION);
+    }
+
+    public static void readHeader(InputStream in) throws IOException {
+        byte[] header = in.readNBytes(MAGIC.length);
+        if (!Arrays.equals(header, MAGIC)) {
+            throw new IllegalArgumentException("Файл не является бинарным снимком задач");
+        }
+        int version = in.read();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Неподдерживаемая версия бинарного формата: " + version);
+        }
+    }
+
+    public static void writeTasks(OutputStream out, Collection<? extends Task> tasks) throws IOException {
+        writeVarLong(out, tasks.size());
+        for (Task task : tasks) {
+            write(out, task);
+        }
+    }
+
+    public static List<Task> readTasks(InputStream in) throws IOException {
+        int count = (int) readVarLong(in);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(read(in));
+        }
+        return tasks;
+    }
+
+    public static void writeHighWaterMark(OutputStream out, int highWaterMark) throws IOException {
+        writeVarLong(out, highWaterMark);
+    }
+
+    public static int readHighWaterMark(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) return 0;
+        long value = b & 0x7F;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            if (shift >= 64) throw new IllegalArgumentException("Некорректное число в бинарном снимке");
+            b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+        }
+        return (int) value;
+    }
+
+    public static void writeIds(OutputStream out, List<Integer> ids) throws IOException {
+        writeVarLong(out, ids.size());
+        for (int id : ids) {
+            writeVarLong(out, id);
+        }
+    }
+
+    public static List<Integer> readIds(InputStream in) throws IOException {
+        int count = (int) readVarLong(in);
+        List<Integer> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add((int) readVarLong(in));
+        }
+        return ids;
+    }
+
+    public static void write(OutputStream out, Task task) throws IOException {
+        writeVarLong(out, task.getId());
+        out.write(task.getType().ordinal());
+        out.write(task.getStatus().ordinal());
+        writeString(out, task.getTitle());
+        writeString(out, task.getDetails());
+        if (task instanceof SubTask subTask) {
+            writeVarLong(out, subTask.getEpicId());
+        }
+        Duration duration = task.getDuration();
+        LocalDateTime startTime = task.getStartTime();
+        int flags = 0;
+        if (duration != null) flags |= HAS_DURATION;
+        if (startTime != null) flags |= HAS_START_TIME;
+        if ((duration != null && duration.getNano() != 0) || (startTime != null && startTime.getNano() != 0)) {
+            flags |= HAS_NANOS;
+        }
+        out.write(flags);
+        if (duration != null) {
+            writeVarLong(out, zigZag(duration.getSeconds()));
+            if ((flags & HAS_NANOS) != 0) writeVarLong(out, duration.getNano());
+        }
+        if (startTime != null) {
+            writeVarLong(out, zigZag(startTime.toEpochSecond(ZoneOffset.UTC)));
+            if ((flags & HAS_NANOS) != 0) writeVarLong(out, startTime.getNano());
+        }
+    }
+
+    public static Task read(InputStream in) throws IOException {
+        int id = (int) readVarLong(in);
+        TaskType type = readEnum(TaskType.values(), readByte(in));
+        TaskStatus status = readEnum(TaskStatus.values(), readByte(in));
+        String title = readString(in);
+        String details = readString(in);
+        Task task = switch (type) {
+            case TASK -> new Task(id, title, details, status);
+            case EPIC -> new Epic(id, title, details, status);
+            case SUBTASK -> new SubTask(id, title, details, status, (int) readVarLong(in));
+        };
+        int flags = readByte(in);
+        if ((flags & HAS_DURATION) != 0) {
+            long seconds = unZigZag(readVarLong(in));
+            long nanos = (flags & HAS_NANOS) != 0 ? readVarLong(in) : 0;
+            task.setDuration(Duration.ofSeconds(seconds, nanos));
+        }
+        if ((flags & HAS_START_TIME) != 0) {
+            long seconds = unZigZag(readVarLong(in));
+            int nanos = (flags & HAS_NANOS) != 0 ? (int) readVarLong(in) : 0;
+            task.setStartTime(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC));
+        }
+        return task;
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        if (length == 0) return null;
+        byte[] bytes = in.readNBytes(length - 1);
+        if (bytes.length != length - 1) throw new EOFException("Неожиданный конец бинарного снимка");
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Некорректное число в бинарном снимке");
+    }
+
+    private static <E extends Enum<E>> E readEnum(E[] values, int ordinal) {
+        if (ordinal >= values.length) {
+            throw new IllegalArgumentException("Некорректное значение в бинарном снимке: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) throw new EOFException("Неожиданный конец бинарного снимка");
+        return b;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
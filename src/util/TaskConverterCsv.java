@@ -8,41 +8,245 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 
 public class TaskConverterCsv {
+    private static final char SEPARATOR = ',';
+    private static final char ESCAPE = '\\';
+
     public static String toString(Task task) {
-        String duration = task.getDuration() != null ? task.getDuration().toString() : "";
-        String startTime = task.getStartTime() != null ? task.getStartTime().toString() : "";
+        return append(new StringBuilder(64), task).toString();
+    }
+
+    public static StringBuilder append(StringBuilder out, Task task) {
+        boolean escaped = needsEscape(task.getTitle()) || needsEscape(task.getDetails());
+        if (escaped) {
+            out.append(ESCAPE);
+        }
+        out.append(task.getId()).append(SEPARATOR)
+                .append(task.getType().name()).append(SEPARATOR);
+        appendText(out, task.getTitle(), escaped);
+        out.append(SEPARATOR).append(task.getStatus().name()).append(SEPARATOR);
+        appendText(out, task.getDetails(), escaped);
+        out.append(SEPARATOR);
         if (task instanceof SubTask subTask) {
-            return String.format("%d,%s,%s,%s,%s,%d,%s,%s",
-                    task.getId(), task.getType(), task.getTitle(), task.getStatus(),
-                    task.getDetails(), subTask.getEpicId(), duration, startTime);
-        } else {
-            return String.format("%d,%s,%s,%s,%s,,%s,%s",
-                    task.getId(), task.getType(), task.getTitle(), task.getStatus(),
-                    task.getDetails(), duration, startTime);
+            out.append(subTask.getEpicId());
         }
+        out.append(SEPARATOR);
+        appendDuration(out, task.getDuration());
+        out.append(SEPARATOR);
+        appendDateTime(out, task.getStartTime());
+        return out;
     }
 
     public static Task fromString(String line) {
-        String[] parts = line.split(",", -1);
-        if (parts.length < 6) {
-            throw new IllegalArgumentException("Некорректный формат строки: " + line);
-        }
-        int id = Integer.parseInt(parts[0]);
-        TaskType type = TaskType.valueOf(parts[1]);
-        String name = parts[2];
-        TaskStatus status = TaskStatus.valueOf(parts[3]);
-        String details = parts[4];
-        String epicId = parts[5];
-        Duration duration = parts[6].isEmpty() ? null : Duration.parse(parts[6]);
-        LocalDateTime startTime = parts[7].isEmpty() ? null : LocalDateTime.parse(parts[7]);
+        return parse(line, 0, line.length());
+    }
+
+    public static Task parse(CharSequence source, int start, int end) {
+        boolean escaped = start < end && source.charAt(start) == ESCAPE;
+        int from = escaped ? start + 1 : start;
+        int idEnd = fieldEnd(source, from, end, false);
+        int typeEnd = fieldEnd(source, idEnd + 1, end, false);
+        int nameEnd = fieldEnd(source, typeEnd + 1, end, escaped);
+        int statusEnd = fieldEnd(source, nameEnd + 1, end, false);
+        if (statusEnd >= end) {
+            throw new IllegalArgumentException("Некорректный формат строки: " + source.subSequence(start, end));
+        }
+        int detailsEnd = fieldEnd(source, statusEnd + 1, end, escaped);
+        int epicEnd = fieldEnd(source, detailsEnd + 1, end, false);
+        int durationEnd = fieldEnd(source, epicEnd + 1, end, false);
+        int startTimeEnd = fieldEnd(source, durationEnd + 1, end, false);
+
+        int id = parseInt(source, from, idEnd);
+        TaskType type = parseEnum(TaskType.values(), source, idEnd + 1, typeEnd);
+        String name = readText(source, typeEnd + 1, nameEnd, escaped);
+        TaskStatus status = parseEnum(TaskStatus.values(), source, nameEnd + 1, statusEnd);
+        String details = readText(source, statusEnd + 1, detailsEnd, escaped);
 
         Task task = switch (type) {
             case TASK -> new Task(id, name, details, status);
             case EPIC -> new Epic(id, name, details, status);
-            case SUBTASK -> new SubTask(id, name, details, status, Integer.parseInt(epicId));
+            case SUBTASK -> new SubTask(id, name, details, status, parseInt(source, detailsEnd + 1, epicEnd));
         };
-        task.setDuration(duration);
-        task.setStartTime(startTime);
+        task.setDuration(parseDuration(source, epicEnd + 1, durationEnd));
+        task.setStartTime(parseDateTime(source, durationEnd + 1, startTimeEnd));
         return task;
     }
+
+    private static int fieldEnd(CharSequence source, int from, int end, boolean escaped) {
+        int i = from;
+        while (i < end) {
+            char c = source.charAt(i);
+            if (c == SEPARATOR) return i;
+            i += escaped && c == ESCAPE ? 2 : 1;
+        }
+        return Math.max(end, from);
+    }
+
+    private static boolean needsEscape(String value) {
+        if (value == null) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == SEPARATOR || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    private static void appendText(StringBuilder out, String value, boolean escaped) {
+        if (value == null || !escaped) {
+            out.append(value);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case SEPARATOR, ESCAPE -> out.append(ESCAPE).append(c);
+                case '\n' -> out.append(ESCAPE).append('n');
+                case '\r' -> out.append(ESCAPE).append('r');
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static String readText(CharSequence source, int from, int to, boolean escaped) {
+        if (from >= to) return "";
+        if (!escaped) return source.subSequence(from, to).toString();
+        int escape = -1;
+        for (int i = from; i < to; i++) {
+            if (source.charAt(i) == ESCAPE) {
+                escape = i;
+                break;
+            }
+        }
+        if (escape < 0) return source.subSequence(from, to).toString();
+        StringBuilder out = new StringBuilder(to - from);
+        out.append(source, from, escape);
+        for (int i = escape; i < to; i++) {
+            char c = source.charAt(i);
+            if (c == ESCAPE && i + 1 < to) {
+                char next = source.charAt(++i);
+                out.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private static int parseInt(CharSequence source, int from, int to) {
+        if (from >= to) {
+            throw new NumberFormatException("Пустое числовое поле");
+        }
+        boolean negative = source.charAt(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i >= to) {
+            throw new NumberFormatException("Некорректное число: " + source.subSequence(from, to));
+        }
+        long value = 0;
+        for (; i < to; i++) {
+            int digit = source.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Некорректное число: " + source.subSequence(from, to));
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Некорректное число: " + source.subSequence(from, to));
+        }
+        return (int) value;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(E[] values, CharSequence source, int from, int to) {
+        for (E value : values) {
+            String name = value.name();
+            if (name.length() == to - from && matches(source, from, name)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестное значение: " + source.subSequence(from, Math.max(from, to)));
+    }
+
+    private static boolean matches(CharSequence source, int from, String expected) {
+        for (int i = 0; i < expected.length(); i++) {
+            if (source.charAt(from + i) != expected.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static void appendDuration(StringBuilder out, Duration duration) {
+        if (duration == null) return;
+        if (duration.isNegative() || duration.getNano() != 0) {
+            out.append(duration);
+            return;
+        }
+        out.append("PT").append(duration.getSeconds()).append('S');
+    }
+
+    private static Duration parseDuration(CharSequence source, int from, int to) {
+        if (from >= to) return null;
+        if (to - from > 3 && source.charAt(from) == 'P' && source.charAt(from + 1) == 'T'
+                && source.charAt(to - 1) == 'S' && isDigits(source, from + 2, to - 1)) {
+            return Duration.ofSeconds(parseLong(source, from + 2, to - 1));
+        }
+        return Duration.parse(source.subSequence(from, to));
+    }
+
+    private static void appendDateTime(StringBuilder out, LocalDateTime time) {
+        if (time == null) return;
+        if (time.getYear() < 0 || time.getYear() > 9999 || time.getNano() != 0) {
+            out.append(time);
+            return;
+        }
+        appendPadded(out, time.getYear(), 4).append('-');
+        appendPadded(out, time.getMonthValue(), 2).append('-');
+        appendPadded(out, time.getDayOfMonth(), 2).append('T');
+        appendPadded(out, time.getHour(), 2).append(':');
+        appendPadded(out, time.getMinute(), 2);
+        if (time.getSecond() != 0) {
+            out.append(':');
+            appendPadded(out, time.getSecond(), 2);
+        }
+    }
+
+    private static LocalDateTime parseDateTime(CharSequence source, int from, int to) {
+        if (from >= to) return null;
+        int length = to - from;
+        if ((length == 16 || length == 19) && source.charAt(from + 4) == '-' && source.charAt(from + 7) == '-'
+                && source.charAt(from + 10) == 'T' && source.charAt(from + 13) == ':'
+                && (length == 16 || source.charAt(from + 16) == ':')
+                && isDigits(source, from, from + 4) && isDigits(source, from + 5, from + 7)
+                && isDigits(source, from + 8, from + 10) && isDigits(source, from + 11, from + 13)
+                && isDigits(source, from + 14, from + 16) && (length == 16 || isDigits(source, from + 17, to))) {
+            return LocalDateTime.of(
+                    parseInt(source, from, from + 4),
+                    parseInt(source, from + 5, from + 7),
+                    parseInt(source, from + 8, from + 10),
+                    parseInt(source, from + 11, from + 13),
+                    parseInt(source, from + 14, from + 16),
+                    length == 16 ? 0 : parseInt(source, from + 17, to));
+        }
+        return LocalDateTime.parse(source.subSequence(from, to));
+    }
+
+    private static StringBuilder appendPadded(StringBuilder out, int value, int width) {
+        for (int limit = 10, digits = 1; digits < width; limit *= 10, digits++) {
+            if (value < limit) out.append('0');
+        }
+        return out.append(value);
+    }
+
+    private static boolean isDigits(CharSequence source, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return from < to;
+    }
+
+    private static long parseLong(CharSequence source, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            value = Math.multiplyExact(value, 10) + (source.charAt(i) - '0');
+        }
+        return value;
+    }
 }
@@ -0,0 +1,194 @@
+package manager;
+
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangePublisherTest {
+    @TempDir
+    private File tempDir;
+    private InMemoryTaskManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new InMemoryTaskManager(new InMemoryHistoryManager());
+    }
+
+    @Test
+    void testDeliversOnlyRequestedEvents() {
+        ChangePublisher publisher = new ChangePublisher(16, 16, null, Runnable::run);
+        manager.addChangeListener(publisher);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(2);
+
+        createTasks(5);
+        assertEquals(List.of(1L, 2L), subscriber.sequences(), "Доставляется только запрошенное количество");
+
+        subscriber.subscription.request(10);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), subscriber.sequences(), "Остальные события доставляются по запросу");
+    }
+
+    @Test
+    void testSlowSubscriberCatchesUpFromRing() {
+        ChangePublisher publisher = new ChangePublisher(2, 64, null, Runnable::run);
+        manager.addChangeListener(publisher);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+
+        createTasks(20);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(LongStream.rangeClosed(1, 20).boxed().toList(), subscriber.sequences(),
+                "Отставший подписчик должен догнать поток без потерь");
+
+        createTasks(3);
+        assertEquals(23, subscriber.events.size(), "После догоняющего чтения события идут напрямую");
+    }
+
+    @Test
+    void testResumeReplaysFromJournalWhenRingIsExhausted() {
+        File journal = new File(tempDir, "changes.log");
+        ChangePublisher publisher = new ChangePublisher(4, 4, journal, Runnable::run);
+        manager.addChangeListener(publisher);
+        createTasks(10);
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber, 3);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(LongStream.rangeClosed(4, 10).boxed().toList(), subscriber.sequences(),
+                "События должны воспроизводиться из журнала и кольца");
+        assertEquals("Task4", subscriber.events.get(0).getTask().getTitle(), "Событие из журнала содержит задачу");
+
+        publisher.close();
+        InMemoryTaskManager restarted = new InMemoryTaskManager(new InMemoryHistoryManager());
+        ChangePublisher reopened = new ChangePublisher(4, 4, journal, Runnable::run);
+        restarted.addChangeListener(reopened);
+        restarted.createTask(new Task(0, "Fresh", "Details", TaskStatus.NEW));
+        assertEquals(11, reopened.getLatestSequence(), "Нумерация должна продолжиться после перезапуска");
+    }
+
+    @Test
+    void testResumeSeeksIntoLargeJournal() {
+        File journal = new File(tempDir, "large.log");
+        ChangePublisher publisher = new ChangePublisher(8, 4, journal, Runnable::run);
+        manager.addChangeListener(publisher);
+        createTasks(300);
+        publisher.close();
+
+        ChangePublisher reopened = new ChangePublisher(8, 4, journal, Runnable::run);
+        assertEquals(300, reopened.getLatestSequence(), "Последний номер должен читаться из журнала");
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        reopened.subscribe(subscriber, 200);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertNull(subscriber.error, "Догоняющее чтение не должно завершаться ошибкой");
+        assertEquals(LongStream.rangeClosed(201, 300).boxed().toList(), subscriber.sequences(),
+                "События должны читаться начиная с нужного места журнала");
+        assertEquals("Task201", subscriber.events.get(0).getTask().getTitle(), "Событие из журнала содержит задачу");
+    }
+
+    @Test
+    void testTornJournalTailIsDiscarded() throws IOException {
+        File journal = new File(tempDir, "torn.log");
+        ChangePublisher publisher = new ChangePublisher(4, 4, journal, Runnable::run);
+        manager.addChangeListener(publisher);
+        createTasks(3);
+        publisher.close();
+        Files.writeString(journal.toPath(), "4,CREA", StandardOpenOption.APPEND);
+
+        InMemoryTaskManager restarted = new InMemoryTaskManager(new InMemoryHistoryManager());
+        ChangePublisher reopened = new ChangePublisher(4, 4, journal, Runnable::run);
+        assertEquals(3, reopened.getLatestSequence(), "Оборванная запись не должна учитываться");
+        restarted.addChangeListener(reopened);
+        restarted.createTask(new Task(0, "Fresh", "Details", TaskStatus.NEW));
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        reopened.subscribe(subscriber, 0);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of(1L, 2L, 3L, 4L), subscriber.sequences(), "Журнал должен продолжаться после обрыва");
+        assertEquals("Fresh", subscriber.events.get(3).getTask().getTitle(), "Новая запись не должна склеиваться");
+    }
+
+    @Test
+    void testResumeWithoutHistoryFails() {
+        ChangePublisher publisher = new ChangePublisher(4, 4, null, Runnable::run);
+        manager.addChangeListener(publisher);
+        createTasks(10);
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber, 1);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertInstanceOf(IllegalStateException.class, subscriber.error, "Потерянные события должны давать ошибку");
+        assertTrue(subscriber.events.isEmpty(), "События не должны доставляться с пропусками");
+    }
+
+    @Test
+    void testInvalidRequestAndCompletion() throws InterruptedException {
+        ChangePublisher publisher = new ChangePublisher(4, 4);
+        RecordingSubscriber invalid = new RecordingSubscriber();
+        publisher.subscribe(invalid);
+        invalid.subscription.request(0);
+        assertTrue(invalid.finished.await(1, TimeUnit.SECONDS), "Подписка должна завершиться");
+        assertInstanceOf(IllegalArgumentException.class, invalid.error, "Неположительный запрос запрещён");
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        publisher.close();
+        assertTrue(subscriber.finished.await(1, TimeUnit.SECONDS), "Закрытие должно завершать подписчиков");
+        assertTrue(subscriber.completed, "Подписчик должен получить onComplete");
+    }
+
+    private void createTasks(int count) {
+        for (int i = 0; i < count; i++) {
+            manager.createTask(new Task(0, "Task" + (manager.getAllTasks().size() + 1), "Details", TaskStatus.NEW));
+        }
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<ChangeEvent> {
+        private final List<ChangeEvent> events = new ArrayList<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ChangeEvent item) {
+            events.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            finished.countDown();
+        }
+
+        List<Long> sequences() {
+            return events.stream().map(ChangeEvent::getSequence).toList();
+        }
+    }
+}
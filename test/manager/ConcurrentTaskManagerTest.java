@@ -0,0 +1,204 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+import util.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager(new InMemoryHistoryManager());
+    }
+
+    @Test
+    void testConcurrentCreatesAssignUniqueIds() throws InterruptedException {
+        int threads = 4;
+        int perThread = 1000;
+        Queue<Integer> ids = new ConcurrentLinkedQueue<>();
+        runConcurrently(threads, thread -> {
+            for (int i = 0; i < perThread; i++) {
+                Task task = new Task(0, "Task" + thread + "-" + i, "Details", TaskStatus.NEW);
+                manager.createTask(task);
+                ids.add(task.getId());
+            }
+        });
+
+        assertEquals(threads * perThread, new HashSet<>(ids).size(), "Все id должны быть уникальными");
+        assertEquals(threads * perThread, manager.getAllTasks().size(), "Все задачи должны быть созданы");
+    }
+
+    @Test
+    void testReadersSeeConsistentStateWhileWritersMutate() throws InterruptedException {
+        List<Task> stable = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Task task = new Task(0, "Stable" + i, "Details", TaskStatus.NEW);
+            manager.createTask(task);
+            stable.add(task);
+        }
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+
+        int writers = 2;
+        int readers = 4;
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        runConcurrently(writers + readers, thread -> {
+            try {
+                if (thread < writers) {
+                    LocalDateTime day = LocalDateTime.of(2025, 7, 16 + thread, 0, 0);
+                    for (int i = 0; i < 2000; i++) {
+                        SubTask subTask = new SubTask(0, "Sub" + i, "Details", TaskStatus.DONE, epic.getId());
+                        subTask.setStartTime(day.plusMinutes(i % 600));
+                        subTask.setDuration(Duration.ofMinutes(1));
+                        manager.createSubTask(subTask);
+                        manager.deleteSubTaskById(subTask.getId());
+                    }
+                } else {
+                    for (int i = 0; i < 20_000; i++) {
+                        Task expected = stable.get(i % stable.size());
+                        Task found = manager.getTaskById(expected.getId()).orElseThrow();
+                        assertEquals(expected.getTitle(), found.getTitle(), "Читатель должен видеть задачу");
+                        assertTrue(manager.getAllTasks().size() >= stable.size(), "Задачи не должны теряться");
+                        assertNotNull(manager.getEpicDuration(epic.getId()), "Эпик должен существовать");
+                    }
+                }
+            } catch (Throwable e) {
+                failures.add(e);
+            }
+        });
+
+        assertTrue(failures.isEmpty(), () -> "Потоки завершились с ошибками: " + failures);
+        assertEquals(stable.size(), manager.getAllTasks().size(), "Количество задач не должно измениться");
+        assertTrue(manager.getAllSubTasks().isEmpty(), "Все подзадачи должны быть удалены");
+        assertTrue(manager.getPrioritizedTasks().isEmpty(), "Расписание должно быть пустым");
+        assertEquals(TaskStatus.NEW, manager.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                "Статус эпика без подзадач должен быть NEW");
+        Set<Integer> historyIds = new HashSet<>();
+        manager.getHistory().forEach(task -> historyIds.add(task.getId()));
+        assertTrue(historyIds.size() <= stable.size() + 1, "История должна содержать только существующие задачи");
+    }
+
+    @Test
+    void testPointReadsSurviveConcurrentResizes() throws InterruptedException {
+        int readers = 4;
+        int grown = 4000;
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        for (int round = 0; round < 10 && failures.isEmpty(); round++) {
+            ConcurrentTaskManager growing = createTaskManager();
+            List<Task> stable = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                Task task = new Task(0, "Stable" + i, "Details", TaskStatus.NEW);
+                growing.createTask(task);
+                stable.add(task);
+            }
+            AtomicBoolean writing = new AtomicBoolean(true);
+            runConcurrently(readers + 1, thread -> {
+                try {
+                    if (thread == 0) {
+                        for (int i = 0; i < grown; i++) {
+                            growing.createTask(new Task(0, "Temp" + i, "Details", TaskStatus.NEW));
+                        }
+                    } else {
+                        for (int i = 0; writing.get(); i++) {
+                            Task expected = stable.get(i % stable.size());
+                            Task found = growing.getTaskById(expected.getId()).orElseThrow();
+                            assertEquals(expected.getTitle(), found.getTitle(), "Читатель должен видеть задачу");
+                            if (i % 256 == 0) {
+                                assertTrue(growing.getAllTasks().size() >= stable.size(), "Задачи не должны теряться");
+                            }
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    if (thread == 0) {
+                        writing.set(false);
+                    }
+                }
+            });
+            assertEquals(stable.size() + grown, growing.getAllTasks().size(), "Все задачи должны быть созданы");
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Потоки завершились с ошибками: " + failures);
+    }
+
+    @Test
+    void testReadThroughputWithOneWriter() throws InterruptedException {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            Task task = new Task(0, "Task" + i, "Details", TaskStatus.NEW);
+            manager.createTask(task);
+            ids.add(task.getId());
+        }
+        int maxReaders = Math.max(2, Runtime.getRuntime().availableProcessors() - 1);
+        long window = TimeUnit.MILLISECONDS.toNanos(200);
+        for (int readers = 1; readers <= maxReaders; readers++) {
+            LongAdder reads = new LongAdder();
+            Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+            long deadline = System.nanoTime() + window;
+            runConcurrently(readers + 1, thread -> {
+                try {
+                    if (thread == 0) {
+                        Task task = manager.getTaskById(ids.get(0)).orElseThrow();
+                        for (int i = 0; System.nanoTime() < deadline; i++) {
+                            task.setDetails("Details" + i);
+                            manager.updateTask(task);
+                        }
+                    } else {
+                        for (int i = 0; System.nanoTime() < deadline; i++) {
+                            manager.getTaskById(ids.get(i % ids.size())).orElseThrow();
+                            reads.increment();
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            assertTrue(failures.isEmpty(), () -> "Потоки завершились с ошибками: " + failures);
+            assertTrue(reads.sum() > 0, "Читатели должны выполнять чтения");
+            System.out.printf("читателей: %d, чтений/с: %d%n", readers,
+                    reads.sum() * TimeUnit.SECONDS.toNanos(1) / window);
+        }
+    }
+
+    private void runConcurrently(int threads, ThreadBody body) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int thread = 0; thread < threads; thread++) {
+            int index = thread;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    body.run(index);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Потоки должны завершиться");
+    }
+
+    private interface ThreadBody {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,215 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.TaskStatus;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLoopTaskManagerTest extends TaskManagerTest<EventLoopTaskManager> {
+    @TempDir
+    private File tempDir;
+
+    @Override
+    protected EventLoopTaskManager createTaskManager() {
+        return new EventLoopTaskManager();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void testConcurrentClientsGetUniqueIdsAndConsistentEpic() throws InterruptedException {
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        int threads = 8;
+        int perThread = 500;
+        Queue<Integer> ids = new ConcurrentLinkedQueue<>();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int thread = 0; thread < threads; thread++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        SubTask subTask = new SubTask(0, "Sub" + i, "Details", TaskStatus.DONE, epic.getId());
+                        manager.createSubTask(subTask);
+                        ids.add(subTask.getId());
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Клиенты должны завершиться");
+
+        assertTrue(failures.isEmpty(), () -> "Клиенты завершились с ошибками: " + failures);
+        Set<Integer> unique = new HashSet<>(ids);
+        assertEquals(threads * perThread, unique.size(), "Идентификаторы должны быть уникальными");
+        assertEquals(threads * perThread, manager.getSubTasksOfEpic(epic.getId()).size(),
+                "Все подзадачи должны принадлежать эпику");
+        assertEquals(TaskStatus.DONE, manager.getAllEpics().get(0).getStatus(), "Статус эпика должен быть пересчитан");
+    }
+
+    @Test
+    void testSubmitReturnsResultAsFuture() {
+        Task first = new Task(0, "Task1", "Details", TaskStatus.NEW);
+        first.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 0));
+        first.setDuration(Duration.ofMinutes(30));
+        manager.createTask(first);
+        manager.createTask(new Task(0, "Task2", "Details", TaskStatus.NEW));
+
+        CompletableFuture<Integer> count = manager.submit(state -> state.getAllTasks().size());
+        assertEquals(2, count.join(), "Результат команды должен вернуться через future");
+
+        Task overlapping = new Task(0, "Task3", "Details", TaskStatus.NEW);
+        overlapping.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 15));
+        overlapping.setDuration(Duration.ofMinutes(30));
+        CompletableFuture<Void> failed = manager.execute(state -> state.createTask(overlapping));
+        CompletionException error = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(IllegalArgumentException.class, error.getCause(), "Ошибка команды должна попасть в future");
+    }
+
+    @Test
+    void testNestedCallsOnWriterThreadRunInline() {
+        EventLoopTaskManager loop = new EventLoopTaskManager();
+        List<String> seen = new ArrayList<>();
+        loop.addChangeListener(event -> seen.add(loop.submit(current -> Thread.currentThread().getName()).join()));
+
+        loop.createTask(new Task(0, "Task", "Details", TaskStatus.NEW));
+        loop.close();
+
+        assertEquals(List.of("kanban-event-loop"), seen, "Вложенный вызов из потока-обработчика не должен блокироваться");
+    }
+
+    @Test
+    void testWriteBehindOwnerKeepsItsScheduleAndIsClosedWithLoop() {
+        File file = new File(tempDir, "loop.csv");
+        FileBackedTaskManager state = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.WRITE_BEHIND);
+        state.setWriteBehindPolicy(Duration.ofHours(1), 1000);
+        EventLoopTaskManager loop = new EventLoopTaskManager(state);
+
+        loop.createTask(new Task(0, "Task", "Details", TaskStatus.NEW));
+        loop.getAllTasks();
+        loop.submit(current -> null).join();
+        assertFalse(file.exists(), "Простой цикла не должен вызывать запись в обход отложенной записи");
+
+        loop.close();
+        assertTrue(file.exists(), "Закрытие цикла должно сбросить изменения в файл");
+        assertEquals(1, FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager()).getAllTasks().size(),
+                "Задача должна быть сохранена");
+
+        state.createTask(new Task(0, "Late", "Details", TaskStatus.NEW));
+        assertEquals(2, FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager()).getAllTasks().size(),
+                "После закрытия фоновый поток записи должен быть остановлен");
+    }
+
+    @Test
+    void testReadsDoNotWaitForQueuedCommands() throws InterruptedException {
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        SubTask subTask = new SubTask(0, "SubTask", "Details", TaskStatus.NEW, epic.getId());
+        subTask.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 0));
+        subTask.setDuration(Duration.ofHours(1));
+        manager.createSubTask(subTask);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = manager.execute(state -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS), "Команда должна начаться");
+        CompletableFuture<Void> queued = manager.execute(state -> state.deleteSubTaskById(subTask.getId()));
+
+        LocalDateTime day = LocalDateTime.of(2025, 7, 16, 0, 0);
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertEquals("SubTask", manager.getSubTaskById(subTask.getId()).orElseThrow().getTitle(),
+                        "Чтение должно видеть опубликованный снимок");
+                assertTrue(manager.getAnyById(epic.getId()).isPresent(), "Эпик должен читаться из снимка");
+                assertEquals(1, manager.getPrioritizedTasks(day, day.plusDays(1)).size(),
+                        "Окно расписания должно читаться из снимка");
+                assertEquals(1, manager.getNextPrioritizedTasks(day, 5).size(), "Ближайшие задачи читаются из снимка");
+                assertEquals(LocalDateTime.of(2025, 7, 16, 11, 0),
+                        manager.findFreeSlot(LocalDateTime.of(2025, 7, 16, 10, 0), Duration.ofHours(1)),
+                        "Свободный интервал должен читаться из снимка");
+                assertEquals(LocalDateTime.of(2025, 7, 16, 10, 0), manager.getEpicStartTime(epic.getId()),
+                        "Сводка эпика должна читаться из снимка");
+            }, "Чтение не должно ждать очереди команд");
+        } finally {
+            release.countDown();
+        }
+        blocker.join();
+        queued.join();
+        assertTrue(manager.getSubTaskById(subTask.getId()).isEmpty(), "После записи снимок должен обновиться");
+        assertEquals(List.of(epic.getId()), manager.getHistory().stream().map(Task::getId).toList(),
+                "Просмотры должны попадать в историю");
+    }
+
+    @Test
+    void testFileBackedOwnerIsReadFromSnapshot() {
+        File file = new File(tempDir, "loaded.csv");
+        FileBackedTaskManager saved = new FileBackedTaskManager(file, new InMemoryHistoryManager());
+        saved.createTask(new Task(0, "Saved", "Details", TaskStatus.NEW));
+        saved.close();
+        EventLoopTaskManager loop = new EventLoopTaskManager(
+                FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager()));
+
+        assertEquals(List.of("Saved"), loop.getAllTasks().stream().map(Task::getTitle).toList(),
+                "Загруженные задачи должны быть в снимке");
+        loop.createTask(new Task(0, "Added", "Details", TaskStatus.NEW));
+        assertEquals(2, loop.snapshot().getAllTasks().size(), "Запись должна публиковаться в снимок");
+        loop.close();
+    }
+
+    @Test
+    void testCloseFromWriterThreadDoesNotDeadlock() {
+        CompletableFuture<Void> closing = manager.execute(state -> manager.close());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), closing::join, "Закрытие из потока цикла не должно зависать");
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> manager.submit(TaskManager::getAllTasks).join());
+        assertInstanceOf(IllegalStateException.class, error.getCause(), "Закрытый менеджер не принимает команды");
+    }
+
+    @Test
+    void testSubmitAfterCloseFails() {
+        manager.close();
+
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> manager.submit(TaskManager::getAllTasks).join());
+        assertInstanceOf(IllegalStateException.class, error.getCause(), "Закрытый менеджер не принимает команды");
+        assertThrows(IllegalStateException.class,
+                () -> manager.createTask(new Task(0, "Task", "Details", TaskStatus.NEW)));
+    }
+}
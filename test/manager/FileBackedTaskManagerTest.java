@@ -3,12 +3,17 @@ package manager;
 import model.Epic;
 import model.SubTask;
 import model.Task;
+import util.StorageFormat;
 import util.TaskStatus;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -112,6 +117,96 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
                 "Должно выбросить исключение при загрузке из несуществующего файла");
     }
 
+    @Test
+    void testLoadLegacyFileWithBackslashes() throws IOException {
+        File file = new File(getTempDir(), "legacy.csv");
+        Files.writeString(file.toPath(), "id,type,name,status,details,epic,duration,startTime\n"
+                + "1,TASK,C:\\new,NEW,Path C:\\temp\\,,,\n"
+                + "2,EPIC,Epic\\,NEW,Details,,,\n"
+                + "3,SUBTASK,Sub,DONE,\\n,2,,\n"
+                + "\n"
+                + "1,3\n");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager());
+        assertEquals("C:\\new", loaded.getTaskById(1).orElseThrow().getTitle(), "Название должно читаться как есть");
+        assertEquals("Path C:\\temp\\", loaded.getTaskById(1).orElseThrow().getDetails(),
+                "Описание должно читаться как есть");
+        assertEquals("Epic\\", loaded.getEpicById(2).orElseThrow().getTitle(), "Завершающая косая черта должна сохраниться");
+        assertEquals("\\n", loaded.getSubTaskById(3).orElseThrow().getDetails(), "Последовательность \\n не должна меняться");
+
+        loaded.save();
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager());
+        assertEquals("C:\\new", reloaded.getTaskById(1).orElseThrow().getTitle(),
+                "Повторное сохранение не должно менять название");
+        assertEquals("\\n", reloaded.getSubTaskById(3).orElseThrow().getDetails(),
+                "Повторное сохранение не должно менять описание");
+    }
+
+    @Test
+    void testManySubtasksOfOneEpicArePersistedInLinearTime() {
+        File file = new File(getTempDir(), "large-epic.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.WRITE_BEHIND);
+        manager.setWriteBehindPolicy(Duration.ofHours(1), Integer.MAX_VALUE);
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 40_000; i++) {
+                manager.createSubTask(new SubTask(0, "Sub" + i, "Details", TaskStatus.DONE, epic.getId()));
+            }
+        }, "Добавление подзадач не должно копировать список подзадач эпика");
+        manager.close();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager());
+        assertEquals(40_000, loaded.getSubTasksOfEpic(epic.getId()).size(), "Все подзадачи должны сохраниться");
+        assertEquals(TaskStatus.DONE, loaded.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                "Статус эпика должен сохраниться");
+    }
+
+    @Test
+    void testTruncatedLastJournalRecordIsSkipped() throws IOException {
+        File file = new File(getTempDir(), "truncated.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        Task first = new Task(0, "A", "Details", TaskStatus.NEW);
+        first.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 0));
+        first.setDuration(Duration.ofHours(1));
+        manager.createTask(first);
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        manager.flush();
+        manager.close();
+        Path journal = new File(file.getPath() + ".journal").toPath();
+        Files.writeString(journal, "PUT,9,TASK,B,NEW,d,,PT3600S,2025-07-16T12", StandardOpenOption.APPEND);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(List.of("A"), loaded.getAllTasks().stream().map(Task::getTitle).toList(),
+                "Записи до оборванной строки должны восстановиться");
+        assertEquals(1, loaded.getAllEpics().size(), "Эпик должен восстановиться");
+
+        loaded.createTask(new Task(0, "C", "Details", TaskStatus.NEW));
+        loaded.flush();
+        loaded.close();
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(List.of("A", "C"), reloaded.getAllTasks().stream().map(Task::getTitle).toList(),
+                "Новая запись не должна склеиваться с оборванной строкой");
+    }
+
+    @Test
+    void testSnapshotRowWithMalformedTimeIsSkipped() throws IOException {
+        File file = new File(getTempDir(), "malformed.csv");
+        Files.writeString(file.toPath(), "id,type,name,status,details,epic,duration,startTime\n"
+                + "1,TASK,A,NEW,Details,,,\n"
+                + "2,TASK,B,NEW,d,,PT3600S,2025-07-16T12\n");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager());
+        assertEquals(List.of("A"), loaded.getAllTasks().stream().map(Task::getTitle).toList(),
+                "Строки до повреждённой должны загрузиться");
+    }
+
     @Test
     void testGetEpicStartTimeDurationAndEndTime() throws IOException {
         File file = new File(getTempDir(), "tasks.csv");
@@ -153,4 +248,485 @@ class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskManager> {
         assertEquals(task.getId(), history.get(0).getId(), "ID задачи в истории должен совпадать");
         assertEquals(task.getTitle(), history.get(0).getTitle(), "Название задачи в истории должно совпадать");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testJournalModeAppendsAndReplays() {
+        File file = new File(getTempDir(), "journal.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        manager.createTask(task);
+        Epic epic = new Epic(0, "Epic", "Epic details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        SubTask subTask = new SubTask(0, "Subtask", "Sub details", TaskStatus.DONE, epic.getId());
+        manager.createSubTask(subTask);
+        Task updated = new Task(task.getId(), "Updated", "Updated details", TaskStatus.IN_PROGRESS);
+        manager.updateTask(updated);
+        Task removed = new Task(0, "Removed", "Details", TaskStatus.NEW);
+        manager.createTask(removed);
+        manager.deleteTaskById(removed.getId());
+        manager.getSubTaskById(subTask.getId());
+        manager.flush();
+
+        assertFalse(file.exists(), "В режиме журнала основной файл не должен перезаписываться");
+        assertTrue(new File(file.getPath() + ".journal").exists(), "Журнал должен быть создан");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(1, loaded.getAllTasks().size(), "Должна остаться 1 задача");
+        assertEquals("Updated", loaded.getAllTasks().get(0).getTitle(), "Должна восстановиться обновлённая задача");
+        assertEquals(1, loaded.getAllSubTasks().size(), "Должна быть 1 подзадача");
+        assertEquals(TaskStatus.DONE, loaded.getAllEpics().get(0).getStatus(), "Статус эпика должен пересчитаться");
+        assertEquals(List.of(subTask.getId()), loaded.getHistory().stream().map(Task::getId).toList(),
+                "История должна восстановиться из журнала просмотров");
+
+        Task next = new Task(0, "Next", "Details", TaskStatus.NEW);
+        loaded.createTask(next);
+        assertTrue(next.getId() > subTask.getId(), "Счётчик id должен продолжаться после загрузки");
+    }
+
+    @Test
+    void testShiftAfterIsJournaledAsSingleRecord() throws IOException {
+        File file = new File(getTempDir(), "shift.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        for (int hour = 8; hour < 12; hour++) {
+            SubTask subTask = new SubTask(0, "SubTask" + hour, "Details", TaskStatus.NEW, epic.getId());
+            subTask.setStartTime(LocalDateTime.of(2025, 7, 16, hour, 0));
+            subTask.setDuration(Duration.ofMinutes(30));
+            manager.createSubTask(subTask);
+        }
+        manager.shiftAfter(LocalDateTime.of(2025, 7, 16, 9, 0), Duration.ofHours(2));
+        manager.flush();
+
+        List<String> records = Files.readAllLines(new File(file.getPath() + ".journal").toPath());
+        assertEquals(6, records.size(), "Сдвиг должен занимать одну запись журнала");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(manager.getPrioritizedTasks().stream().map(Task::getStartTime).toList(),
+                loaded.getPrioritizedTasks().stream().map(Task::getStartTime).toList(),
+                "Сдвиг должен воспроизводиться из журнала");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 13, 30), loaded.getEpicEndTime(epic.getId()),
+                "Время эпика должно учитывать сдвиг");
+    }
+
+    @Test
+    void testBatchIsPersistedOnceAndOnlyOnCommit() throws IOException {
+        File file = new File(getTempDir(), "batch.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        Epic epic = new Epic(10, "Epic", "Details", TaskStatus.NEW);
+        TaskBatch batch = new TaskBatch().create(epic);
+        for (int i = 1; i <= 3; i++) {
+            SubTask subTask = new SubTask(10 + i, "SubTask" + i, "Details", TaskStatus.DONE, epic.getId());
+            subTask.setStartTime(LocalDateTime.of(2025, 7, 16, 8 + i, 0));
+            subTask.setDuration(Duration.ofMinutes(30));
+            batch.create(subTask);
+        }
+        manager.apply(batch);
+        SubTask conflicting = new SubTask(20, "Conflicting", "Details", TaskStatus.NEW, epic.getId());
+        conflicting.setStartTime(LocalDateTime.of(2025, 7, 16, 9, 15));
+        conflicting.setDuration(Duration.ofMinutes(30));
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.apply(new TaskBatch().delete(12).create(conflicting)));
+        manager.flush();
+
+        List<String> records = Files.readAllLines(new File(file.getPath() + ".journal").toPath());
+        assertEquals(List.of("BEGIN,4", "COMMIT"), List.of(records.get(0), records.get(records.size() - 1)),
+                "Пакет должен записываться одной обрамлённой записью");
+        assertEquals(6, records.size(), "Отклонённый пакет не должен попадать в журнал");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(3, loaded.getSubTasksOfEpic(epic.getId()).size(), "Пакет должен воспроизводиться из журнала");
+        assertEquals(TaskStatus.DONE, loaded.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                "Статус эпика должен восстановиться");
+    }
+
+    @Test
+    void testTornBatchIsDroppedOnReplay() throws IOException {
+        File file = new File(getTempDir(), "torn.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        manager.createTask(new Task(1, "Before", "Details", TaskStatus.NEW));
+        Epic epic = new Epic(10, "Epic", "Details", TaskStatus.NEW);
+        manager.apply(new TaskBatch().create(epic)
+                .create(new SubTask(11, "SubTask1", "Details", TaskStatus.DONE, epic.getId()))
+                .create(new SubTask(12, "SubTask2", "Details", TaskStatus.DONE, epic.getId())));
+        manager.flush();
+        manager.close();
+
+        Path journal = new File(file.getPath() + ".journal").toPath();
+        List<String> records = Files.readAllLines(journal);
+        Files.writeString(journal, String.join("\n", records.subList(0, records.size() - 2)) + "\nPUT,12,SUB");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(1, loaded.getAllTasks().size(), "Записи до пакета должны сохраниться");
+        assertTrue(loaded.getAllEpics().isEmpty(), "Незавершённый пакет не должен воспроизводиться");
+        assertTrue(loaded.getAllSubTasks().isEmpty(), "Часть пакета не должна воспроизводиться");
+
+        loaded.createTask(new Task(2, "After", "Details", TaskStatus.NEW));
+        loaded.flush();
+        loaded.close();
+        FileBackedTaskManager reloaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(List.of("Before", "After"), reloaded.getAllTasks().stream().map(Task::getTitle).toList(),
+                "Записи после восстановления не должны теряться");
+        assertTrue(reloaded.getAllEpics().isEmpty(), "Оборванный пакет не должен воспроизводиться повторно");
+    }
+
+    @Test
+    void testHighWaterMarkSurvivesReload() {
+        for (StorageFormat format : StorageFormat.values()) {
+            File file = new File(getTempDir(), "mark-" + format + ".dat");
+            FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                    PersistenceMode.SNAPSHOT, format);
+            Task kept = new Task(0, "Kept", "Details", TaskStatus.NEW);
+            Task removed = new Task(0, "Removed", "Details", TaskStatus.NEW);
+            manager.createTask(kept);
+            manager.createTask(removed);
+            manager.deleteTaskById(removed.getId());
+
+            FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager());
+            Task next = new Task(0, "Next", "Details", TaskStatus.NEW);
+            loaded.createTask(next);
+            assertEquals(removed.getId() + 1, next.getId(), "id удалённой задачи не должен выдаваться повторно");
+        }
+    }
+
+    @Test
+    void testSaveInJournalModeTruncatesJournal() {
+        File file = new File(getTempDir(), "journal.csv");
+        File journalFile = new File(file.getPath() + ".journal");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        manager.createTask(new Task(0, "Task1", "Details", TaskStatus.NEW));
+        manager.save();
+        assertFalse(journalFile.exists(), "Журнал должен быть очищен после полного сохранения");
+
+        manager.createTask(new Task(0, "Task2", "Details", TaskStatus.NEW));
+        assertTrue(journalFile.exists(), "Новые изменения должны попадать в журнал");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(2, loaded.getAllTasks().size(), "Должны загрузиться снимок и хвост журнала");
+    }
+
+    @Test
+    void testBackgroundSnapshotCompactsJournal() {
+        File file = new File(getTempDir(), "compacted.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        manager.setSnapshotPolicy(3, Duration.ofHours(1));
+
+        for (int i = 0; i < 7; i++) {
+            manager.createTask(new Task(0, "Task" + i, "Details", TaskStatus.NEW));
+        }
+        manager.awaitSnapshot();
+
+        assertTrue(file.exists(), "Снимок должен быть записан в фоне");
+        assertFalse(new File(file.getPath() + ".journal.compacting").exists(),
+                "Перенесённый журнал должен удаляться после записи снимка");
+        assertTrue(new MutationJournal(new File(file.getPath() + ".journal")).readAll().size() < 7,
+                "В журнале должен остаться только хвост после последнего снимка");
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(7, loaded.getAllTasks().size(), "Снимок и хвост журнала должны дать все задачи");
+    }
+
+    @Test
+    void testBackgroundSnapshotRendersStateCapturedAtSchedulingTime() {
+        File file = new File(getTempDir(), "captured.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        manager.setSnapshotPolicy(2, Duration.ofHours(1));
+
+        Task first = new Task(0, "Task1", "Details", TaskStatus.NEW);
+        manager.createTask(first);
+        manager.createTask(new Task(0, "Task2", "Details", TaskStatus.NEW));
+        first.setTitle("Changed");
+        manager.awaitSnapshot();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals("Task1", loaded.getTaskById(first.getId()).orElseThrow().getTitle(),
+                "Снимок должен содержать состояние на момент его планирования");
+        manager.close();
+    }
+
+    @Test
+    void testWriteBehindDefersWritesUntilFlush() {
+        File file = new File(getTempDir(), "deferred.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.WRITE_BEHIND);
+        manager.setWriteBehindPolicy(Duration.ofHours(1), 1000);
+
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(new Task(0, "Task" + i, "Details", TaskStatus.NEW));
+        }
+        assertFalse(file.exists(), "Запись должна быть отложена до сброса");
+
+        manager.flush();
+        assertTrue(file.exists(), "После flush файл должен быть записан");
+        assertEquals(3, FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager()).getAllTasks().size(),
+                "Все изменения должны попасть в файл одной записью");
+
+        manager.createTask(new Task(0, "Task3", "Details", TaskStatus.NEW));
+        manager.close();
+        assertEquals(4, FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager()).getAllTasks().size(),
+                "close должен сбрасывать накопленные изменения");
+    }
+
+    @Test
+    void testWriteBehindFlushesInBackground() throws InterruptedException {
+        File file = new File(getTempDir(), "background.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.WRITE_BEHIND);
+        manager.setWriteBehindPolicy(Duration.ofMillis(5), 2);
+
+        manager.createTask(new Task(0, "Task1", "Details", TaskStatus.NEW));
+        manager.createTask(new Task(0, "Task2", "Details", TaskStatus.NEW));
+        for (int i = 0; i < 100 && !file.exists(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(file.exists(), "Фоновый поток должен записать изменения без явного flush");
+        manager.close();
+    }
+
+    @Test
+    void testReadsDoNotWriteFiles() throws IOException {
+        File file = new File(getTempDir(), "reads.csv");
+        File historyFile = new File(file.getPath() + ".history");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        manager.createTask(task);
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        File journalFile = new File(file.getPath() + ".journal");
+        long journalLength = journalFile.length();
+
+        manager.getTaskById(task.getId());
+        manager.getEpicById(epic.getId());
+        assertFalse(historyFile.exists(), "Чтение не должно обращаться к файлам");
+        assertEquals(journalLength, journalFile.length(), "Чтение не должно дописывать журнал изменений");
+
+        manager.flush();
+        assertTrue(historyFile.exists(), "Просмотры должны сохраняться в отдельный журнал истории");
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(List.of(task.getId(), epic.getId()), loaded.getHistory().stream().map(Task::getId).toList(),
+                "История должна восстановиться в порядке просмотров");
+
+        File snapshotFile = new File(getTempDir(), "snapshot.csv");
+        FileBackedTaskManager snapshotManager = new FileBackedTaskManager(snapshotFile, new InMemoryHistoryManager());
+        snapshotManager.createTask(new Task(0, "Task", "Details", TaskStatus.NEW));
+        String before = Files.readString(snapshotFile.toPath());
+        snapshotManager.getTaskById(1);
+        assertEquals(before, Files.readString(snapshotFile.toPath()),
+                "В режиме снимков чтение не должно перезаписывать файл");
+    }
+
+    @Test
+    void testViewsSurviveReloadWithoutLaterMutation() throws InterruptedException {
+        File snapshotFile = new File(getTempDir(), "viewed-snapshot.csv");
+        FileBackedTaskManager snapshotManager = new FileBackedTaskManager(snapshotFile, new InMemoryHistoryManager());
+        snapshotManager.setSnapshotPolicy(3, Duration.ofHours(1));
+        Task first = new Task(0, "Task1", "Details", TaskStatus.NEW);
+        Task second = new Task(0, "Task2", "Details", TaskStatus.NEW);
+        snapshotManager.createTask(first);
+        snapshotManager.createTask(second);
+        snapshotManager.getTaskById(second.getId());
+        snapshotManager.getTaskById(first.getId());
+
+        assertEquals(List.of(second.getId(), first.getId()),
+                FileBackedTaskManager.loadFromFile(snapshotFile, new InMemoryHistoryManager()).getHistory().stream()
+                        .map(Task::getId).toList(),
+                "Просмотры должны сохраняться без последующих изменений");
+
+        snapshotManager.getTaskById(second.getId());
+        assertFalse(new File(snapshotFile.getPath() + ".history").exists(),
+                "Журнал истории должен сворачиваться в снимок по достижении порога");
+        assertEquals(List.of(first.getId(), second.getId()),
+                FileBackedTaskManager.loadFromFile(snapshotFile, new InMemoryHistoryManager()).getHistory().stream()
+                        .map(Task::getId).toList(),
+                "История должна восстановиться из снимка");
+
+        File deferredFile = new File(getTempDir(), "viewed-deferred.csv");
+        FileBackedTaskManager deferredManager = new FileBackedTaskManager(deferredFile, new InMemoryHistoryManager(),
+                PersistenceMode.WRITE_BEHIND);
+        deferredManager.setWriteBehindPolicy(Duration.ofMillis(5), 1000);
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        deferredManager.createTask(task);
+        deferredManager.flush();
+        deferredManager.getTaskById(task.getId());
+
+        List<Integer> history = List.of();
+        for (int i = 0; i < 100 && history.isEmpty(); i++) {
+            Thread.sleep(10);
+            history = FileBackedTaskManager.loadFromFile(deferredFile, new InMemoryHistoryManager()).getHistory()
+                    .stream().map(Task::getId).toList();
+        }
+        assertEquals(List.of(task.getId()), history, "Просмотр должен записываться фоновым сбросом");
+        deferredManager.close();
+    }
+
+    @Test
+    void testRepeatedViewsAreCollapsedBeforeJournaling() {
+        File file = new File(getTempDir(), "views.csv");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        Task first = new Task(0, "Task1", "Details", TaskStatus.NEW);
+        Task second = new Task(0, "Task2", "Details", TaskStatus.NEW);
+        manager.createTask(first);
+        manager.createTask(second);
+
+        for (int i = 0; i < 10_000; i++) {
+            manager.getTaskById(first.getId());
+            manager.getTaskById(second.getId());
+        }
+        manager.getTaskById(first.getId());
+        manager.flush();
+
+        List<String> views = new MutationJournal(new File(file.getPath() + ".history")).readAll();
+        assertEquals(List.of(MutationJournal.view(second.getId()), MutationJournal.view(first.getId())), views,
+                "Повторные просмотры должны схлопываться до последнего порядка");
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager(),
+                PersistenceMode.JOURNAL);
+        assertEquals(List.of(second.getId(), first.getId()), loaded.getHistory().stream().map(Task::getId).toList(),
+                "История должна восстановиться в порядке последних просмотров");
+    }
+
+    @Test
+    void testBinaryFormatRoundTripAndConversion() {
+        File file = new File(getTempDir(), "tasks.bin");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.SNAPSHOT, StorageFormat.BINARY);
+        Task task = new Task(0, "Задача", null, TaskStatus.IN_PROGRESS);
+        task.setStartTime(LocalDateTime.of(1965, 3, 1, 9, 30));
+        task.setDuration(Duration.ofMinutes(45));
+        manager.createTask(task);
+        Epic epic = new Epic(0, "Epic", "Epic details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        SubTask subTask = new SubTask(0, "Subtask", "Sub details", TaskStatus.DONE, epic.getId());
+        subTask.setStartTime(LocalDateTime.of(2025, 7, 16, 12, 0, 15, 500));
+        subTask.setDuration(Duration.ofHours(2));
+        manager.createSubTask(subTask);
+        manager.getEpicById(epic.getId());
+        manager.save();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager());
+        Task loadedTask = loaded.getAllTasks().get(0);
+        assertEquals(task.getTitle(), loadedTask.getTitle(), "Название должно сохраниться без искажений");
+        assertNull(loadedTask.getDetails(), "Пустое описание должно сохраниться как null");
+        assertEquals(task.getStartTime(), loadedTask.getStartTime(), "Время начала должно совпадать");
+        assertEquals(task.getDuration(), loadedTask.getDuration(), "Длительность должна совпадать");
+        SubTask loadedSub = loaded.getAllSubTasks().get(0);
+        assertEquals(subTask.getStartTime(), loadedSub.getStartTime(), "Наносекунды должны сохраниться");
+        assertEquals(epic.getId(), loadedSub.getEpicId(), "ID эпика должен совпадать");
+        assertEquals(TaskStatus.DONE, loaded.getAllEpics().get(0).getStatus(), "Статус эпика должен пересчитаться");
+        assertEquals(List.of(epic.getId()), loaded.getHistory().stream().map(Task::getId).toList(),
+                "История должна восстановиться");
+
+        File csv = new File(getTempDir(), "converted.csv");
+        FileBackedTaskManager.convert(file, csv, StorageFormat.CSV);
+        FileBackedTaskManager fromCsv = FileBackedTaskManager.loadFromFile(csv, new InMemoryHistoryManager());
+        assertEquals(1, fromCsv.getAllSubTasks().size(), "Конвертация в CSV должна сохранить подзадачи");
+        assertEquals(subTask.getDuration(), fromCsv.getAllSubTasks().get(0).getDuration(),
+                "Конвертация в CSV должна сохранить длительность");
+
+        File binary = new File(getTempDir(), "converted.bin");
+        FileBackedTaskManager.convert(csv, binary, StorageFormat.BINARY);
+        FileBackedTaskManager fromBinary = FileBackedTaskManager.loadFromFile(binary, new InMemoryHistoryManager());
+        assertEquals(1, fromBinary.getAllTasks().size(), "Обратная конвертация должна сохранить задачи");
+        assertEquals(1, fromBinary.getAllSubTasks().size(), "Обратная конвертация должна сохранить подзадачи");
+        assertTrue(binary.length() < csv.length(), "Бинарный формат должен быть компактнее CSV");
+    }
+
+    @Test
+    void testBinarySnapshotWithCorruptTypeIsRejected() throws IOException {
+        File file = new File(getTempDir(), "corrupt.bin");
+        FileBackedTaskManager manager = new FileBackedTaskManager(file, new InMemoryHistoryManager(),
+                PersistenceMode.SNAPSHOT, StorageFormat.BINARY);
+        manager.createTask(new Task(0, "Corrupt", "Details", TaskStatus.NEW));
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int title = new String(bytes, StandardCharsets.ISO_8859_1).indexOf("Corrupt");
+        bytes[title - 3] = 42;
+        Files.write(file.toPath(), bytes);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager()),
+                "Неизвестный тип задачи должен отклоняться как некорректные данные");
+    }
+
+    @Test
+    void testLoadTrustsPersistedDataAndWritesNothing() throws IOException {
+        File file = new File(getTempDir(), "restore.csv");
+        String content = "id,type,name,status,details,epic,duration,startTime\n"
+                + "4,SUBTASK,Sub1,DONE,Details,3,PT1H,2025-07-16T12:00\n"
+                + "1,TASK,Task1,NEW,Details,,PT2H,2025-07-16T10:00\n"
+                + "2,TASK,Task2,NEW,Details,,PT1H,2025-07-16T11:00\n"
+                + "3,EPIC,Epic,NEW,Details,,,\n"
+                + "5,SUBTASK,Sub2,DONE,Details,3,,\n"
+                + "6,SUBTASK,Orphan,NEW,Details,99,,\n"
+                + "\n"
+                + "2,4,1";
+        Files.writeString(file.toPath(), content);
+        long modified = file.lastModified();
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager());
+
+        assertEquals(2, loaded.getAllTasks().size(), "Сохранённые задачи загружаются без повторной проверки");
+        assertEquals(2, loaded.getAllSubTasks().size(), "Подзадача без эпика должна быть пропущена");
+        assertEquals(List.of(4, 5), loaded.getEpicById(3).orElseThrow().getSubTaskIds(),
+                "Подзадачи должны привязаться к эпику независимо от порядка строк");
+        assertEquals(TaskStatus.DONE, loaded.getAllEpics().get(0).getStatus(), "Статус эпика должен пересчитаться");
+        assertEquals(List.of(1, 2, 4), loaded.getPrioritizedTasks().stream().map(Task::getId).toList(),
+                "Приоритетный список должен быть отсортирован по времени начала");
+        assertEquals(List.of(2, 4, 1, 3), loaded.getHistory().stream().map(Task::getId).toList(),
+                "История должна восстановиться напрямую");
+        assertEquals(content, Files.readString(file.toPath()), "Загрузка не должна перезаписывать файл");
+        assertEquals(modified, file.lastModified(), "Загрузка не должна изменять файл");
+
+        Task next = new Task(0, "Next", "Details", TaskStatus.NEW);
+        loaded.createTask(next);
+        assertEquals(6, next.getId(), "Счётчик id должен учитывать загруженные задачи");
+    }
+
+    @Test
+    void testLoadLargeFileInParallelChunks() throws IOException {
+        File file = new File(getTempDir(), "large.csv");
+        StringBuilder content = new StringBuilder("id,type,name,status,details,epic,duration,startTime\r\n");
+        content.append("1,EPIC,Epic,NEW,Details,,,\r\n");
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 0, 0);
+        int count = 20_000;
+        for (int id = 2; id < count; id++) {
+            if (id % 2 == 0) {
+                content.append(id).append(",SUBTASK,Sub").append(id).append(",DONE,Details,1,PT1M,")
+                        .append(start.plusMinutes(id)).append("\r\n");
+            } else {
+                content.append(id).append(",TASK,Task").append(id).append(",NEW,Details,,,\r\n");
+            }
+        }
+        content.append("broken line\r\n");
+        content.append("\r\n").append("3,2");
+        Files.writeString(file.toPath(), content);
+
+        FileBackedTaskManager loaded = FileBackedTaskManager.loadFromFile(file, new InMemoryHistoryManager());
+
+        assertEquals(count / 2 - 1, loaded.getAllTasks().size(), "Все задачи должны быть разобраны");
+        assertEquals(count / 2 - 1, loaded.getAllSubTasks().size(), "Все подзадачи должны быть разобраны");
+        assertEquals(count / 2 - 1, loaded.getEpicById(1).orElseThrow().getSubTaskIds().size(),
+                "Все подзадачи должны быть привязаны к эпику");
+        assertEquals(TaskStatus.DONE, loaded.getAllEpics().get(0).getStatus(), "Статус эпика должен пересчитаться");
+        assertEquals(List.of(3, 2, 1), loaded.getHistory().stream().map(Task::getId).toList(),
+                "История должна читаться после блока задач");
+    }
+}
@@ -0,0 +1,90 @@
+package manager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdAllocatorTest {
+    @TempDir
+    private File tempDir;
+
+    @Test
+    void testAtomicAllocatorAdvancesPastObservedIds() {
+        IdAllocator allocator = new AtomicIdAllocator();
+        assertEquals(1, allocator.next(), "Первый id должен быть 1");
+        allocator.advancePast(10);
+        assertEquals(11, allocator.next(), "После наблюдения id 10 следующий должен быть 11");
+        allocator.advancePast(5);
+        assertEquals(12, allocator.next(), "Меньший id не должен откатывать счётчик");
+        assertEquals(13, allocator.getHighWaterMark(), "Граница должна указывать на следующий id");
+    }
+
+    @Test
+    void testBlockAllocatorsSharingLeaseNeverCollide() throws InterruptedException {
+        File lease = new File(tempDir, "ids.lease");
+        IdAllocator first = new BlockIdAllocator(lease, 16);
+        IdAllocator second = new BlockIdAllocator(lease, 16);
+        Queue<Integer> ids = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            IdAllocator allocator = thread % 2 == 0 ? first : second;
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    ids.add(allocator.next());
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Потоки должны завершиться");
+
+        Set<Integer> unique = new HashSet<>(ids);
+        assertEquals(4000, unique.size(), "Менеджеры с общим файлом аренды не должны выдавать одинаковые id");
+        assertTrue(unique.stream().allMatch(id -> id > 0), "id должны быть положительными");
+    }
+
+    @Test
+    void testBlockAllocatorsShareLockForDifferentSpellingsOfLeasePath() throws InterruptedException {
+        IdAllocator first = new BlockIdAllocator(new File(tempDir, "ids.lease"), 1);
+        IdAllocator second = new BlockIdAllocator(new File(new File(tempDir, "."), "ids.lease"), 1);
+        Queue<Integer> ids = new ConcurrentLinkedQueue<>();
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        for (IdAllocator allocator : new IdAllocator[]{first, second}) {
+            executor.execute(() -> {
+                try {
+                    for (int i = 0; i < 300; i++) {
+                        ids.add(allocator.next());
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Потоки должны завершиться");
+
+        assertTrue(failures.isEmpty(), () -> "Резервирование завершилось с ошибками: " + failures);
+        assertEquals(600, new HashSet<>(ids).size(), "Один и тот же файл аренды должен блокироваться одним монитором");
+    }
+
+    @Test
+    void testBlockAllocatorAdvancesLeaseBeyondObservedId() {
+        File lease = new File(tempDir, "ids.lease");
+        IdAllocator first = new BlockIdAllocator(lease, 8);
+        first.advancePast(100);
+        assertEquals(101, first.next(), "Следующий id должен идти после наблюдённого");
+
+        IdAllocator second = new BlockIdAllocator(lease, 8);
+        assertTrue(second.next() > 101, "Новый менеджер должен получить блок после уже выданных");
+    }
+}
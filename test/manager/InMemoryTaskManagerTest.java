@@ -1,11 +1,17 @@
 package manager;
 
+import model.Epic;
+import model.SubTask;
 import model.Task;
+import util.ChangeType;
 import util.TaskStatus;
+import util.TaskType;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,4 +37,70 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
         task2.setDuration(Duration.ofHours(1));
         assertFalse(manager.hasIntersection(task2), "Задачи не должны пересекаться");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testChangeListenerReceivesOrderedEvents() {
+        List<ChangeEvent> events = new ArrayList<>();
+        manager.addChangeListener(events::add);
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        SubTask subTask = new SubTask(0, "SubTask", "Details", TaskStatus.DONE, epic.getId());
+        manager.createSubTask(subTask);
+        manager.updateSubTask(new SubTask(subTask.getId(), "SubTask", "Details", TaskStatus.DONE, epic.getId()));
+        manager.deleteEpicById(epic.getId());
+
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.CREATED, ChangeType.STATUS_CHANGED, ChangeType.UPDATED,
+                        ChangeType.DELETED, ChangeType.DELETED),
+                events.stream().map(ChangeEvent::getType).toList(), "События должны идти в порядке изменений");
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), events.stream().map(ChangeEvent::getSequence).toList(),
+                "Номера событий должны возрастать");
+        assertEquals(TaskStatus.DONE, events.get(2).getTask().getStatus(), "Событие должно содержать новый статус");
+        assertEquals(List.of(TaskType.SUBTASK, TaskType.EPIC),
+                events.subList(4, 6).stream().map(ChangeEvent::getTaskType).toList(),
+                "Подзадачи удаляются раньше эпика");
+        assertEquals(6, manager.getChangeSequence(), "Последний номер должен быть доступен");
+    }
+
+    @Test
+    void testBatchEventsAreDeliveredOnlyOnCommit() {
+        List<ChangeEvent> events = new ArrayList<>();
+        manager.addChangeListener(events::add);
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        task.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 0));
+        task.setDuration(Duration.ofHours(1));
+        manager.createTask(task);
+        events.clear();
+
+        Task conflicting = new Task(0, "Conflicting", "Details", TaskStatus.NEW);
+        conflicting.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 30));
+        conflicting.setDuration(Duration.ofHours(1));
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.apply(new TaskBatch().create(new Task(0, "Other", "Details", TaskStatus.NEW))
+                        .create(conflicting)));
+        assertTrue(events.isEmpty(), "Отклонённый пакет не должен порождать события");
+
+        Epic epic = new Epic(50, "Epic", "Details", TaskStatus.NEW);
+        manager.apply(new TaskBatch()
+                .create(epic)
+                .create(new SubTask(51, "First", "Details", TaskStatus.DONE, epic.getId()))
+                .create(new SubTask(52, "Second", "Details", TaskStatus.DONE, epic.getId())));
+        assertEquals(List.of(ChangeType.CREATED, ChangeType.CREATED, ChangeType.CREATED, ChangeType.STATUS_CHANGED),
+                events.stream().map(ChangeEvent::getType).toList(), "Статус эпика должен пересчитаться один раз");
+        assertEquals(List.of(2L, 3L, 4L, 5L), events.stream().map(ChangeEvent::getSequence).toList(),
+                "Номера не должны расходоваться на отклонённый пакет");
+    }
+
+    @Test
+    void testFailingListenerDoesNotBreakManager() {
+        List<ChangeEvent> events = new ArrayList<>();
+        manager.addChangeListener(event -> {
+            throw new IllegalStateException("Сбой");
+        });
+        manager.addChangeListener(events::add);
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        manager.createTask(task);
+
+        assertEquals(1, events.size(), "Остальные обработчики должны получить событие");
+        assertTrue(manager.getTaskById(task.getId()).isPresent(), "Задача должна быть создана");
+    }
+}
@@ -0,0 +1,146 @@
+package manager;
+
+import model.Task;
+import org.junit.jupiter.api.Test;
+import util.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalIndexTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 7, 16, 0, 0);
+
+    private static Task task(int id, int startMinute, int durationMinutes) {
+        Task task = new Task(id, "Task" + id, "Details", TaskStatus.NEW);
+        task.setStartTime(BASE.plusMinutes(startMinute));
+        task.setDuration(Duration.ofMinutes(durationMinutes));
+        return task;
+    }
+
+    @Test
+    void testTouchingEndpointsDoNotOverlap() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(task(1, 60, 60));
+
+        assertFalse(index.overlaps(task(2, 0, 60)), "Задача, заканчивающаяся в момент начала, не пересекается");
+        assertFalse(index.overlaps(task(3, 120, 30)), "Задача, начинающаяся в момент окончания, не пересекается");
+        assertTrue(index.overlaps(task(4, 119, 30)), "Задача, начинающаяся внутри интервала, пересекается");
+        assertTrue(index.overlaps(task(5, 30, 31)), "Задача, заканчивающаяся внутри интервала, пересекается");
+        assertTrue(index.overlaps(task(6, 90, 0)), "Мгновенная задача внутри интервала пересекается");
+        assertFalse(index.overlaps(task(7, 60, 0)), "Мгновенная задача на границе не пересекается");
+    }
+
+    @Test
+    void testTaskDoesNotOverlapItself() {
+        IntervalIndex index = new IntervalIndex();
+        Task task = task(1, 0, 60);
+        index.add(task);
+        assertFalse(index.overlaps(task), "Задача не должна пересекаться сама с собой");
+    }
+
+    @Test
+    void testZeroLengthNeighboursDoNotHideOverlaps() {
+        IntervalIndex index = new IntervalIndex();
+        index.add(task(2, 10, 0));
+        index.add(task(1, 10, 20));
+        assertTrue(index.overlaps(task(3, 15, 10)), "Пересечение должно находиться при совпадающем начале");
+    }
+
+    @Test
+    void testMatchesLinearIntersectsOnRandomSchedules() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            IntervalIndex index = new IntervalIndex();
+            List<Task> accepted = new ArrayList<>();
+            for (int id = 1; id <= 200; id++) {
+                Task candidate = task(id, random.nextInt(2000), random.nextInt(4) == 0 ? 0 : random.nextInt(40));
+                boolean expected = accepted.stream().anyMatch(candidate::intersects);
+                assertEquals(expected, index.overlaps(candidate), "Индекс должен совпадать с Task.intersects");
+                if (!expected) {
+                    index.add(candidate);
+                    accepted.add(candidate);
+                }
+                if (!accepted.isEmpty() && random.nextInt(5) == 0) {
+                    index.remove(accepted.remove(random.nextInt(accepted.size())));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFindFreeSlotOnEmptyIndexReturnsFrom() {
+        IntervalIndex index = new IntervalIndex();
+        assertEquals(BASE, index.findFreeSlot(BASE, Duration.ofHours(1)), "Пустое расписание свободно с начала поиска");
+    }
+
+    @Test
+    void testFindFreeSlotMatchesLinearScanOnRandomSchedules() {
+        Random random = new Random(7);
+        for (int round = 0; round < 50; round++) {
+            IntervalIndex index = new IntervalIndex();
+            List<Task> accepted = new ArrayList<>();
+            for (int id = 1; id <= 150; id++) {
+                Task candidate = task(id, random.nextInt(3000), random.nextInt(5) == 0 ? 0 : random.nextInt(60));
+                if (!index.overlaps(candidate)) {
+                    index.add(candidate);
+                    accepted.add(candidate);
+                }
+                if (!accepted.isEmpty() && random.nextInt(6) == 0) {
+                    index.remove(accepted.remove(random.nextInt(accepted.size())));
+                }
+                int from = random.nextInt(3200);
+                int duration = random.nextInt(4) == 0 ? 0 : random.nextInt(90);
+                assertEquals(BASE.plusMinutes(linearFreeSlot(accepted, from, duration)),
+                        index.findFreeSlot(BASE.plusMinutes(from), Duration.ofMinutes(duration)),
+                        "Индекс промежутков должен совпадать с линейным поиском");
+            }
+        }
+    }
+
+    @Test
+    void testBulkLoadMatchesIncrementalAdds() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            IntervalIndex incremental = new IntervalIndex();
+            List<Task> accepted = new ArrayList<>();
+            for (int id = 1; id <= 300; id++) {
+                Task candidate = task(id, random.nextInt(5000), random.nextInt(5) == 0 ? 0 : random.nextInt(60));
+                if (!incremental.overlaps(candidate)) {
+                    incremental.add(candidate);
+                    accepted.add(candidate);
+                }
+            }
+            IntervalIndex bulk = new IntervalIndex();
+            List<Task> shuffled = new ArrayList<>(accepted);
+            Collections.shuffle(shuffled, random);
+            bulk.addAll(shuffled);
+            for (int probe = 0; probe < 200; probe++) {
+                Task candidate = task(-1, random.nextInt(5200), random.nextInt(90));
+                assertEquals(incremental.overlaps(candidate), bulk.overlaps(candidate),
+                        "Массовая загрузка должна давать тот же индекс пересечений");
+                assertEquals(incremental.findFreeSlot(candidate.getStartTime(), candidate.getDuration()),
+                        bulk.findFreeSlot(candidate.getStartTime(), candidate.getDuration()),
+                        "Массовая загрузка должна давать тот же индекс промежутков");
+            }
+            bulk.remove(accepted.get(0));
+            assertEquals(accepted.get(0).getStartTime(),
+                    bulk.findFreeSlot(accepted.get(0).getStartTime(), accepted.get(0).getDuration()),
+                    "После удаления освободившийся промежуток должен находиться");
+        }
+    }
+
+    private static int linearFreeSlot(List<Task> accepted, int from, int duration) {
+        for (int start = from; ; start++) {
+            Task probe = task(-1, start, duration);
+            if (accepted.stream().noneMatch(probe::intersects)) {
+                return start;
+            }
+        }
+    }
+}
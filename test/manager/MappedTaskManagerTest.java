@@ -0,0 +1,189 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.TaskStatus;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedTaskManagerTest extends TaskManagerTest<MappedTaskManager> {
+    @TempDir
+    private File tempDir;
+
+    @Override
+    protected MappedTaskManager createTaskManager() {
+        return new MappedTaskManager(new File(tempDir, "tasks.slots"), new InMemoryHistoryManager());
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    @Test
+    void testReopenRestoresState() {
+        File file = new File(tempDir, "reopen.slots");
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        SubTask subTask;
+        try (MappedTaskManager first = new MappedTaskManager(file, new InMemoryHistoryManager())) {
+            Task task = new Task(0, "Task", null, TaskStatus.NEW);
+            task.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 0));
+            task.setDuration(Duration.ofHours(1));
+            first.createTask(task);
+            first.createEpic(epic);
+            subTask = new SubTask(0, "Subtask", "Sub details", TaskStatus.DONE, epic.getId());
+            first.createSubTask(subTask);
+            first.updateTask(new Task(task.getId(), "Renamed", "Much longer details than before", TaskStatus.DONE));
+            Task removed = new Task(0, "Removed", "Details", TaskStatus.NEW);
+            first.createTask(removed);
+            first.deleteTaskById(removed.getId());
+            first.force();
+        }
+
+        try (MappedTaskManager reopened = new MappedTaskManager(file, new InMemoryHistoryManager())) {
+            assertEquals(1, reopened.getAllTasks().size(), "Удалённая задача не должна восстановиться");
+            Task task = reopened.getAllTasks().get(0);
+            assertEquals("Renamed", task.getTitle(), "Обновлённый слот должен перезаписаться");
+            assertEquals("Much longer details than before", task.getDetails(),
+                    "Длинный текст должен переехать в новую область кучи");
+            assertNull(task.getStartTime(), "Время начала должно быть сброшено обновлением");
+            assertEquals(TaskStatus.DONE, reopened.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                    "Статус эпика должен пересчитаться при открытии");
+            assertEquals(subTask.getId(), reopened.getAllSubTasks().get(0).getId(), "Подзадача должна сохраниться");
+        }
+    }
+
+    @Test
+    void testCorruptStatusByteIsRejected() throws IOException {
+        File file = new File(tempDir, "corrupt.slots");
+        try (MappedTaskManager first = new MappedTaskManager(file, new InMemoryHistoryManager())) {
+            first.createTask(new Task(0, "Task", "Details", TaskStatus.NEW));
+            first.force();
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(16 + 48 + 1);
+            raf.write(42);
+        }
+
+        assertThrows(ManagerSaveException.class, () -> new MappedTaskManager(file, new InMemoryHistoryManager()),
+                "Повреждённый статус должен отклоняться как повреждённый файл");
+    }
+
+    @Test
+    void testDeletingIdOfAnotherTypeKeepsItsSlot() {
+        File file = new File(tempDir, "types.slots");
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        try (MappedTaskManager first = new MappedTaskManager(file, new InMemoryHistoryManager())) {
+            first.createEpic(epic);
+            first.createTask(task);
+            first.deleteTaskById(epic.getId());
+            first.deleteSubTaskById(task.getId());
+            first.deleteSubTaskById(epic.getId());
+            first.force();
+        }
+
+        try (MappedTaskManager reopened = new MappedTaskManager(file, new InMemoryHistoryManager())) {
+            assertTrue(reopened.getEpicById(epic.getId()).isPresent(), "Эпик не должен пропасть после открытия");
+            assertTrue(reopened.getTaskById(task.getId()).isPresent(), "Задача не должна пропасть после открытия");
+        }
+    }
+
+    @Test
+    void testStoreGrowsBeyondInitialCapacity() {
+        File file = new File(tempDir, "grow.slots");
+        String details = "x".repeat(200);
+        try (MappedTaskManager first = new MappedTaskManager(file, new InMemoryHistoryManager())) {
+            for (int i = 0; i < 3000; i++) {
+                first.createTask(new Task(0, "Task" + i, details, TaskStatus.NEW));
+            }
+        }
+        try (MappedTaskManager reopened = new MappedTaskManager(file, new InMemoryHistoryManager())) {
+            assertEquals(3000, reopened.getAllTasks().size(), "Все задачи должны сохраниться после расширения");
+            assertEquals("Task2999", reopened.getTaskById(3000).orElseThrow().getTitle(),
+                    "Последняя задача должна читаться корректно");
+        }
+    }
+
+    @Test
+    void testLazyBodiesAreLoadedOnDemand() {
+        File file = new File(tempDir, "lazy.slots");
+        try (MappedTaskManager first = new MappedTaskManager(file, new InMemoryHistoryManager())) {
+            for (int i = 1; i <= 10; i++) {
+                first.createTask(new Task(0, "Task" + i, "Details" + i, TaskStatus.NEW));
+            }
+        }
+
+        try (MappedTaskManager lazy = new MappedTaskManager(file, new InMemoryHistoryManager(), 2)) {
+            for (Task task : lazy.getAllTasks()) {
+                assertEquals("Task" + task.getId(), task.getTitle(), "Название должно подгружаться из файла");
+                assertEquals("Details" + task.getId(), task.getDetails(), "Описание должно подгружаться из файла");
+            }
+            Task task = lazy.getTaskById(3).orElseThrow();
+            task.setTitle("Renamed");
+            assertEquals("Details3", task.getDetails(), "Изменение названия не должно терять описание");
+            lazy.updateTask(task);
+            assertEquals("Task3", lazy.getHistory().get(0).getTitle(),
+                    "История должна хранить копию текста на момент просмотра");
+        }
+
+        try (MappedTaskManager reopened = new MappedTaskManager(file, new InMemoryHistoryManager(), 2)) {
+            assertEquals("Renamed", reopened.getTaskById(3).orElseThrow().getTitle(),
+                    "Изменённое название должно сохраниться");
+            assertEquals("Task4", reopened.getTaskById(4).orElseThrow().getTitle(),
+                    "Соседние записи не должны пострадать");
+        }
+    }
+
+    @Test
+    void testLazyBodiesCanBeReadConcurrently() throws InterruptedException {
+        File file = new File(tempDir, "concurrent.slots");
+        try (MappedTaskManager first = new MappedTaskManager(file, new InMemoryHistoryManager())) {
+            for (int i = 1; i <= 50; i++) {
+                first.createTask(new Task(0, "Task" + i, "Details" + i, TaskStatus.NEW));
+            }
+        }
+
+        try (MappedTaskManager lazy = new MappedTaskManager(file, new InMemoryHistoryManager(), 4)) {
+            List<Task> all = lazy.getAllTasks();
+            Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+            List<Thread> readers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                int seed = thread;
+                Thread reader = new Thread(() -> {
+                    try {
+                        Random random = new Random(seed);
+                        for (int i = 0; i < 20_000; i++) {
+                            Task task = all.get(random.nextInt(all.size()));
+                            assertEquals("Task" + task.getId(), task.getTitle(), "Название должно совпадать");
+                            assertEquals("Details" + task.getId(), task.getDetails(), "Описание должно совпадать");
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                });
+                readers.add(reader);
+                reader.start();
+            }
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            assertTrue(failures.isEmpty(), () -> "Чтение завершилось с ошибками: " + failures);
+        }
+    }
+}
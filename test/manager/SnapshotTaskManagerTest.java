@@ -0,0 +1,271 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+import util.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotTaskManagerTest extends TaskManagerTest<SnapshotTaskManager> {
+    @Override
+    protected SnapshotTaskManager createTaskManager() {
+        return new SnapshotTaskManager();
+    }
+
+    @Test
+    void testSnapshotIsNotAffectedByLaterWrites() {
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        task.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 0));
+        task.setDuration(Duration.ofMinutes(30));
+        manager.createTask(task);
+        manager.getTaskById(task.getId());
+        TaskSnapshot before = manager.snapshot();
+
+        SubTask subTask = new SubTask(0, "SubTask", "Details", TaskStatus.DONE, epic.getId());
+        manager.createSubTask(subTask);
+        Task updated = new Task(task.getId(), "Updated", "Details", TaskStatus.DONE);
+        manager.updateTask(updated);
+        manager.deleteEpicById(epic.getId());
+
+        assertEquals("Task", before.getAllTasks().get(0).getTitle(), "Снимок не должен видеть обновление");
+        assertEquals(1, before.getPrioritizedTasks().size(), "Снимок должен сохранить расписание");
+        assertEquals(1, before.getAllEpics().size(), "Снимок должен сохранить удалённый эпик");
+        assertEquals(TaskStatus.NEW, before.getAllEpics().get(0).getStatus(), "Статус эпика в снимке не меняется");
+        assertTrue(before.getAllSubTasks().isEmpty(), "Снимок не должен видеть новую подзадачу");
+        assertEquals(List.of(task.getId()), before.getHistory().stream().map(Task::getId).toList(),
+                "История в снимке не должна меняться");
+
+        TaskSnapshot after = manager.snapshot();
+        assertEquals("Updated", after.getAllTasks().get(0).getTitle(), "Новый снимок должен видеть обновление");
+        assertTrue(after.getPrioritizedTasks().isEmpty(), "Задача без времени не попадает в расписание");
+        assertTrue(after.getAllEpics().isEmpty(), "Эпик должен быть удалён");
+        assertTrue(after.getAllSubTasks().isEmpty(), "Подзадачи эпика должны быть удалены");
+    }
+
+    @Test
+    void testSnapshotListsAreUnmodifiable() {
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        manager.createTask(task);
+        manager.getTaskById(task.getId());
+
+        assertThrows(UnsupportedOperationException.class,
+                () -> manager.getAllTasks().add(new Task(0, "Other", "Details", TaskStatus.NEW)));
+        assertThrows(UnsupportedOperationException.class, () -> manager.getHistory().clear());
+    }
+
+    @Test
+    void testReturnedTasksAreCopiesOfSnapshotEntries() {
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        manager.createTask(task);
+        TaskSnapshot snapshot = manager.snapshot();
+
+        manager.getTaskById(task.getId()).orElseThrow().setTitle("Changed");
+        manager.getAllTasks().get(0).setTitle("Changed");
+        manager.getHistory().get(0).setTitle("Changed");
+        snapshot.getAnyById(task.getId()).orElseThrow().setTitle("Changed");
+
+        assertEquals("Task", manager.getTaskById(task.getId()).orElseThrow().getTitle(),
+                "Изменение возвращённой задачи не должно влиять на других читателей");
+        assertEquals("Task", snapshot.getAllTasks().get(0).getTitle(), "Снимок не должен меняться");
+        assertEquals("Task", manager.getHistory().get(0).getTitle(), "История не должна меняться");
+    }
+
+    @Test
+    void testPointReadsDoNotWaitForWriters() throws Exception {
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        manager.createTask(task);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        manager.addChangeListener(event -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.execute(() -> manager.createTask(new Task(0, "Other", "Details", TaskStatus.NEW)));
+            assertTrue(entered.await(10, TimeUnit.SECONDS), "Запись должна начаться");
+
+            Task seen = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> manager.getTaskById(task.getId()).orElseThrow(),
+                    "Чтение по идентификатору не должно ждать записи");
+            assertEquals(task.getId(), seen.getId(), "Должна вернуться запрошенная задача");
+            assertEquals(List.of(task.getId()), manager.getHistory().stream().map(Task::getId).toList(),
+                    "Просмотр должен попасть в историю");
+            LocalDateTime day = LocalDateTime.of(2025, 7, 16, 0, 0);
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                manager.getPrioritizedTasks(day, day.plusDays(1));
+                manager.getNextPrioritizedTasks(day, 10);
+                manager.findFreeSlot(day, Duration.ofHours(1));
+                manager.hasIntersection(task);
+                manager.getEpicStartTime(task.getId());
+                manager.getEpicEndTime(task.getId());
+                manager.getEpicDuration(task.getId());
+            }, "Чтение расписания и сводок эпиков не должно ждать записи");
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS), "Запись должна завершиться");
+        }
+        assertEquals(2, manager.getAllTasks().size(), "Запись должна примениться после чтения");
+    }
+
+    @Test
+    void testScheduleReadsReturnCopies() {
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        task.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 0));
+        task.setDuration(Duration.ofHours(1));
+        manager.createTask(task);
+
+        LocalDateTime day = LocalDateTime.of(2025, 7, 16, 0, 0);
+        manager.getPrioritizedTasks(day, day.plusDays(1)).get(0).setStartTime(day.plusDays(3));
+        manager.getNextPrioritizedTasks(day, 1).get(0).setStartTime(day.plusDays(3));
+
+        Task overlapping = new Task(0, "Overlapping", "Details", TaskStatus.NEW);
+        overlapping.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 30));
+        overlapping.setDuration(Duration.ofHours(1));
+        assertThrows(IllegalArgumentException.class, () -> manager.createTask(overlapping),
+                "Изменение возвращённой задачи не должно портить расписание");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 10, 0), manager.getPrioritizedTasks().get(0).getStartTime(),
+                "Снимок должен хранить исходное время");
+    }
+
+    @Test
+    void testScheduleReadsMatchInMemoryManager() {
+        Random random = new Random(23);
+        InMemoryTaskManager expected = new InMemoryTaskManager(new InMemoryHistoryManager());
+        LocalDateTime base = LocalDateTime.of(2025, 7, 16, 0, 0);
+        Epic epic = new Epic(1, "Epic", "Details", TaskStatus.NEW);
+        expected.createEpic(epic);
+        manager.createEpic(new Epic(1, "Epic", "Details", TaskStatus.NEW));
+        for (int id = 2; id < 400; id++) {
+            LocalDateTime start = base.plusMinutes(random.nextInt(2000));
+            Duration duration = random.nextInt(5) == 0 ? null : Duration.ofMinutes(random.nextInt(40));
+            Task task = random.nextBoolean() ? new Task(id, "T", "D", TaskStatus.NEW)
+                    : new SubTask(id, "S", "D", TaskStatus.DONE, 1);
+            task.setStartTime(start);
+            task.setDuration(duration);
+            Task twin = InMemoryHistoryManager.copyOf(task);
+            try {
+                if (task instanceof SubTask subTask) {
+                    expected.createSubTask(subTask);
+                } else {
+                    expected.createTask(task);
+                }
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            if (twin instanceof SubTask subTask) {
+                manager.createSubTask(subTask);
+            } else {
+                manager.createTask(twin);
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            LocalDateTime from = base.plusMinutes(random.nextInt(2100) - 50);
+            LocalDateTime to = from.plusMinutes(random.nextInt(200));
+            Duration duration = Duration.ofMinutes(random.nextInt(60));
+            assertEquals(ids(expected.getPrioritizedTasks(from, to)), ids(manager.getPrioritizedTasks(from, to)),
+                    "Окно расписания должно совпадать");
+            assertEquals(ids(expected.getNextPrioritizedTasks(from, 7)), ids(manager.getNextPrioritizedTasks(from, 7)),
+                    "Ближайшие задачи должны совпадать");
+            assertEquals(expected.findFreeSlot(from, duration), manager.findFreeSlot(from, duration),
+                    "Свободный интервал должен совпадать");
+            Task probe = new Task(1000, "P", "D", TaskStatus.NEW);
+            probe.setStartTime(from);
+            probe.setDuration(duration);
+            assertEquals(expected.hasIntersection(probe), manager.hasIntersection(probe), "Пересечение должно совпадать");
+        }
+        assertEquals(expected.getEpicStartTime(1), manager.getEpicStartTime(1), "Начало эпика должно совпадать");
+        assertEquals(expected.getEpicEndTime(1), manager.getEpicEndTime(1), "Конец эпика должен совпадать");
+        assertEquals(expected.getEpicDuration(1), manager.getEpicDuration(1), "Длительность эпика должна совпадать");
+        assertEquals(ids(expected.getSubTasksOfEpic(1)), ids(manager.getSubTasksOfEpic(1)),
+                "Подзадачи эпика должны совпадать");
+    }
+
+    @Test
+    void testManySubtasksOfOneEpicArePublishedInLinearTime() {
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 0; i < 40_000; i++) {
+                manager.createSubTask(new SubTask(0, "Sub" + i, "Details", TaskStatus.DONE, epic.getId()));
+            }
+        }, "Публикация подзадачи не должна копировать список подзадач эпика");
+        assertEquals(40_000, manager.getSubTasksOfEpic(epic.getId()).size(), "Все подзадачи должны быть в снимке");
+        assertEquals(40_000, manager.getEpicById(epic.getId()).orElseThrow().getSubTaskCount(),
+                "Эпик из снимка должен знать свои подзадачи");
+    }
+
+    private static List<Integer> ids(List<? extends Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+
+    @Test
+    void testReadersSeeConsistentSnapshotsWhileWritersMutate() throws InterruptedException {
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        int writers = 2;
+        int readers = 4;
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(writers + readers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int thread = 0; thread < writers + readers; thread++) {
+            int index = thread;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    if (index < writers) {
+                        LocalDateTime day = LocalDateTime.of(2025, 7, 16 + index, 0, 0);
+                        for (int i = 0; i < 2000; i++) {
+                            SubTask subTask = new SubTask(0, "Sub" + i, "Details", TaskStatus.DONE, epic.getId());
+                            subTask.setStartTime(day.plusMinutes(i % 600));
+                            subTask.setDuration(Duration.ofMinutes(1));
+                            manager.createSubTask(subTask);
+                            manager.deleteSubTaskById(subTask.getId());
+                        }
+                    } else {
+                        for (int i = 0; i < 20_000; i++) {
+                            TaskSnapshot snapshot = manager.snapshot();
+                            Epic seen = snapshot.getEpicById(epic.getId()).orElseThrow();
+                            assertEquals(seen.getSubTaskCount(), snapshot.getSubTasksOfEpic(epic.getId()).size(),
+                                    "Подзадачи эпика должны совпадать со снимком");
+                            assertEquals(snapshot.getAllSubTasks().size(), snapshot.getPrioritizedTasks().size(),
+                                    "Расписание должно совпадать с подзадачами снимка");
+                            TaskStatus expected = seen.getSubTaskCount() == 0 ? TaskStatus.NEW : TaskStatus.DONE;
+                            assertEquals(expected, seen.getStatus(), "Статус эпика должен быть согласован");
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Потоки должны завершиться");
+
+        assertTrue(failures.isEmpty(), () -> "Потоки завершились с ошибками: " + failures);
+        assertTrue(manager.getAllSubTasks().isEmpty(), "Все подзадачи должны быть удалены");
+        assertTrue(manager.getPrioritizedTasks().isEmpty(), "Расписание должно быть пустым");
+    }
+}
@@ -0,0 +1,182 @@
+package manager;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+import util.TaskStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedTaskManagerTest extends TaskManagerTest<StripedTaskManager> {
+    @Override
+    protected StripedTaskManager createTaskManager() {
+        return new StripedTaskManager(new InMemoryHistoryManager(), 8);
+    }
+
+    @Test
+    void testMovingSubTaskAcrossStripesKeepsHistory() {
+        Epic source = new Epic(0, "Source", "Details", TaskStatus.NEW);
+        Epic target = new Epic(0, "Target", "Details", TaskStatus.NEW);
+        manager.createEpic(source);
+        manager.createEpic(target);
+        SubTask subTask = new SubTask(0, "SubTask", "Details", TaskStatus.IN_PROGRESS, source.getId());
+        manager.createSubTask(subTask);
+        manager.getSubTaskById(subTask.getId());
+
+        SubTask moved = new SubTask(subTask.getId(), "Moved", "Details", TaskStatus.IN_PROGRESS, target.getId());
+        manager.updateSubTask(moved);
+
+        assertEquals("Moved", manager.getSubTaskById(subTask.getId()).orElseThrow().getTitle(),
+                "Подзадача должна находиться после переноса");
+        assertEquals(List.of(moved), manager.getSubTasksOfEpic(target.getId()), "Подзадача должна быть в новом эпике");
+        assertTrue(manager.getSubTasksOfEpic(source.getId()).isEmpty(), "Старый эпик должен опустеть");
+        assertEquals(List.of(subTask.getId()), manager.getHistory().stream().map(Task::getId).toList(),
+                "Перенос не должен удалять подзадачу из истории");
+    }
+
+    @Test
+    void testIntersectionIsCheckedAcrossStripes() {
+        Task first = new Task(0, "First", "Details", TaskStatus.NEW);
+        first.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 0));
+        first.setDuration(Duration.ofHours(1));
+        manager.createTask(first);
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        SubTask clash = new SubTask(0, "Clash", "Details", TaskStatus.NEW, epic.getId());
+        clash.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 30));
+        clash.setDuration(Duration.ofHours(1));
+
+        assertThrows(IllegalArgumentException.class, () -> manager.createSubTask(clash),
+                "Пересечение с задачей из другого сегмента должно отклоняться");
+        SubTask orphan = new SubTask(0, "Orphan", "Details", TaskStatus.NEW, 999);
+        orphan.setStartTime(LocalDateTime.of(2025, 7, 16, 12, 0));
+        orphan.setDuration(Duration.ofHours(1));
+        assertThrows(IllegalArgumentException.class, () -> manager.createSubTask(orphan),
+                "Подзадача без эпика должна отклоняться");
+        assertEquals(List.of(first), manager.getPrioritizedTasks(), "Отклонённые подзадачи не должны занимать время");
+    }
+
+    @Test
+    void testUnscheduledWritesDoNotTakeScheduleLock() {
+        manager.scheduleLock.readLock().lock();
+        try {
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+                manager.createTask(task);
+                manager.updateTask(new Task(task.getId(), "Updated", "Details", TaskStatus.DONE));
+                Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+                manager.createEpic(epic);
+                SubTask subTask = new SubTask(0, "SubTask", "Details", TaskStatus.NEW, epic.getId());
+                manager.createSubTask(subTask);
+                manager.updateSubTask(new SubTask(subTask.getId(), "Updated", "Details", TaskStatus.DONE,
+                        epic.getId()));
+                manager.deleteSubTaskById(subTask.getId());
+                manager.deleteTaskById(task.getId());
+                manager.deleteEpicById(epic.getId());
+            }, "Изменения без времени не должны ждать блокировку расписания");
+        } finally {
+            manager.scheduleLock.readLock().unlock();
+        }
+        assertTrue(manager.getAllTasks().isEmpty(), "Задача должна быть удалена");
+        assertTrue(manager.getPrioritizedTasks().isEmpty(), "Расписание должно остаться пустым");
+    }
+
+    @Test
+    void testParallelWritersAcrossEpics() throws InterruptedException {
+        int threads = 8;
+        int perThread = 500;
+        List<Epic> epics = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Epic epic = new Epic(0, "Epic" + i, "Details", TaskStatus.NEW);
+            manager.createEpic(epic);
+            epics.add(epic);
+        }
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int thread = 0; thread < threads; thread++) {
+            Epic epic = epics.get(thread);
+            LocalDateTime day = LocalDateTime.of(2025, 8, 1 + thread, 0, 0);
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        SubTask subTask = new SubTask(0, "Sub" + i, "Details", TaskStatus.NEW, epic.getId());
+                        subTask.setStartTime(day.plusMinutes(i));
+                        subTask.setDuration(Duration.ofMinutes(1));
+                        manager.createSubTask(subTask);
+                        subTask.setStatus(TaskStatus.DONE);
+                        manager.updateSubTask(subTask);
+                        manager.getSubTaskById(subTask.getId()).orElseThrow();
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Потоки должны завершиться");
+
+        assertTrue(failures.isEmpty(), () -> "Потоки завершились с ошибками: " + failures);
+        assertEquals(threads * perThread, new HashSet<>(manager.getAllSubTasks()).size(),
+                "Все подзадачи должны быть созданы с уникальными id");
+        assertEquals(threads * perThread, manager.getPrioritizedTasks().size(), "Все подзадачи должны быть в расписании");
+        for (Epic epic : epics) {
+            assertEquals(TaskStatus.DONE, manager.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                    "Статус каждого эпика должен пересчитаться");
+            assertEquals(Duration.ofMinutes(perThread), manager.getEpicDuration(epic.getId()),
+                    "Длительность каждого эпика должна сложиться");
+        }
+    }
+
+    @Test
+    void testDeleteWinsAgainstConcurrentMoveAcrossStripes() throws InterruptedException {
+        Epic first = new Epic(0, "First", "Details", TaskStatus.NEW);
+        Epic second = new Epic(0, "Second", "Details", TaskStatus.NEW);
+        manager.createEpic(first);
+        manager.createEpic(second);
+        for (int round = 0; round < 300; round++) {
+            SubTask subTask = new SubTask(0, "Sub", "Details", TaskStatus.NEW, first.getId());
+            manager.createSubTask(subTask);
+            int id = subTask.getId();
+            AtomicBoolean stop = new AtomicBoolean();
+            Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+            Thread mover = new Thread(() -> {
+                try {
+                    for (int i = 0; !stop.get(); i++) {
+                        Epic epic = i % 2 == 0 ? second : first;
+                        manager.updateSubTask(new SubTask(id, "Sub", "Details", TaskStatus.NEW, epic.getId()));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            });
+            mover.start();
+            Thread.yield();
+            manager.deleteSubTaskById(id);
+            boolean deleted = manager.getAllSubTasks().stream().noneMatch(task -> task.getId() == id);
+            stop.set(true);
+            mover.join();
+
+            assertTrue(failures.isEmpty(), () -> "Перенос завершился с ошибкой: " + failures);
+            assertTrue(deleted, "Удаление не должно теряться при одновременном переносе подзадачи");
+            assertTrue(manager.getSubTasksOfEpic(first.getId()).isEmpty(), "Подзадача не должна остаться в эпике");
+            assertTrue(manager.getSubTasksOfEpic(second.getId()).isEmpty(), "Подзадача не должна остаться в эпике");
+        }
+    }
+}
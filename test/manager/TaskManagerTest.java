@@ -4,11 +4,13 @@ import model.Epic;
 import model.SubTask;
 import model.Task;
 import util.TaskStatus;
+import util.TaskType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -456,6 +458,153 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(task2.getId(), prioritized.get(0).getId(), "Задача с более ранним временем должна быть первой");
     }
 
+    @Test
+    void testGetPrioritizedTasksInWindow() {
+        Task early = new Task(0, "Early", "Details", TaskStatus.NEW);
+        early.setStartTime(LocalDateTime.of(2025, 7, 16, 8, 0));
+        early.setDuration(Duration.ofHours(2));
+        Task inside = new Task(0, "Inside", "Details", TaskStatus.NEW);
+        inside.setStartTime(LocalDateTime.of(2025, 7, 16, 11, 0));
+        inside.setDuration(Duration.ofHours(1));
+        Task late = new Task(0, "Late", "Details", TaskStatus.NEW);
+        late.setStartTime(LocalDateTime.of(2025, 7, 16, 12, 0));
+        late.setDuration(Duration.ofHours(1));
+        manager.createTask(early);
+        manager.createTask(inside);
+        manager.createTask(late);
+        manager.createTask(new Task(0, "Unscheduled", "Details", TaskStatus.NEW));
+
+        List<Task> window = manager.getPrioritizedTasks(LocalDateTime.of(2025, 7, 16, 9, 0),
+                LocalDateTime.of(2025, 7, 16, 12, 0));
+        assertEquals(List.of(early.getId(), inside.getId()), window.stream().map(Task::getId).toList(),
+                "В окно должны попасть задачи, пересекающие его, без задачи, начинающейся на границе");
+        assertTrue(manager.getPrioritizedTasks(LocalDateTime.of(2025, 7, 16, 10, 0),
+                LocalDateTime.of(2025, 7, 16, 11, 0)).isEmpty(), "Окно между задачами должно быть пустым");
+        assertThrows(IllegalArgumentException.class, () -> manager.getPrioritizedTasks(
+                LocalDateTime.of(2025, 7, 16, 12, 0), LocalDateTime.of(2025, 7, 16, 9, 0)),
+                "Перевернутое окно должно отклоняться");
+    }
+
+    @Test
+    void testGetNextPrioritizedTasks() {
+        for (int hour = 8; hour < 14; hour++) {
+            Task task = new Task(0, "Task" + hour, "Details", TaskStatus.NEW);
+            task.setStartTime(LocalDateTime.of(2025, 7, 16, hour, 0));
+            task.setDuration(Duration.ofMinutes(30));
+            manager.createTask(task);
+        }
+
+        List<Task> next = manager.getNextPrioritizedTasks(LocalDateTime.of(2025, 7, 16, 10, 0), 2);
+        assertEquals(List.of(LocalDateTime.of(2025, 7, 16, 10, 0), LocalDateTime.of(2025, 7, 16, 11, 0)),
+                next.stream().map(Task::getStartTime).toList(), "Должны вернуться две ближайшие задачи");
+        assertEquals(1, manager.getNextPrioritizedTasks(LocalDateTime.of(2025, 7, 16, 12, 30), 5).size(),
+                "Должна вернуться только оставшаяся задача");
+        assertTrue(manager.getNextPrioritizedTasks(LocalDateTime.of(2025, 7, 16, 8, 0), 0).isEmpty(),
+                "Нулевой лимит должен давать пустой список");
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.getNextPrioritizedTasks(LocalDateTime.of(2025, 7, 16, 8, 0), -1),
+                "Отрицательный лимит должен отклоняться");
+    }
+
+    @Test
+    void testFindFreeSlot() {
+        Task morning = new Task(0, "Morning", "Details", TaskStatus.NEW);
+        morning.setStartTime(LocalDateTime.of(2025, 7, 16, 9, 0));
+        morning.setDuration(Duration.ofHours(1));
+        Task noon = new Task(0, "Noon", "Details", TaskStatus.NEW);
+        noon.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 30));
+        noon.setDuration(Duration.ofHours(2));
+        manager.createTask(morning);
+        manager.createTask(noon);
+
+        assertEquals(LocalDateTime.of(2025, 7, 16, 10, 0),
+                manager.findFreeSlot(LocalDateTime.of(2025, 7, 16, 9, 30), Duration.ofMinutes(30)),
+                "Задача должна поместиться в промежуток между задачами");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 12, 30),
+                manager.findFreeSlot(LocalDateTime.of(2025, 7, 16, 9, 30), Duration.ofMinutes(45)),
+                "Длинная задача должна встать после последней");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 8, 0),
+                manager.findFreeSlot(LocalDateTime.of(2025, 7, 16, 8, 0), Duration.ofHours(1)),
+                "Свободное время до первой задачи должно использоваться");
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.findFreeSlot(LocalDateTime.of(2025, 7, 16, 8, 0), Duration.ofHours(-1)),
+                "Отрицательная длительность должна отклоняться");
+    }
+
+    @Test
+    void testCreateTaskAutoScheduled() {
+        Task first = new Task(0, "First", "Details", TaskStatus.NEW);
+        first.setStartTime(LocalDateTime.of(2025, 7, 16, 9, 0));
+        first.setDuration(Duration.ofHours(1));
+        manager.createTask(first);
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+
+        Task task = new Task(0, "Auto", "Details", TaskStatus.NEW);
+        task.setDuration(Duration.ofMinutes(30));
+        manager.createTaskAutoScheduled(task, LocalDateTime.of(2025, 7, 16, 9, 0));
+        SubTask subTask = new SubTask(0, "AutoSub", "Details", TaskStatus.NEW, epic.getId());
+        subTask.setDuration(Duration.ofMinutes(30));
+        manager.createTaskAutoScheduled(subTask, LocalDateTime.of(2025, 7, 16, 9, 0));
+
+        assertEquals(LocalDateTime.of(2025, 7, 16, 10, 0), task.getStartTime(), "Задача должна встать после занятого времени");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 10, 30), subTask.getStartTime(), "Подзадача должна встать следом");
+        assertTrue(manager.getSubTaskById(subTask.getId()).isPresent(), "Подзадача должна быть создана");
+        Task withoutDuration = new Task(0, "NoDuration", "Details", TaskStatus.NEW);
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.createTaskAutoScheduled(withoutDuration, LocalDateTime.of(2025, 7, 16, 9, 0)),
+                "Задача без длительности не может быть запланирована");
+    }
+
+    @Test
+    void testShiftAfterMovesTailOfSchedule() {
+        List<Task> created = new ArrayList<>();
+        for (int hour = 8; hour < 12; hour++) {
+            Task task = new Task(0, "Task" + hour, "Details", TaskStatus.NEW);
+            task.setStartTime(LocalDateTime.of(2025, 7, 16, hour, 0));
+            task.setDuration(Duration.ofMinutes(30));
+            manager.createTask(task);
+            created.add(task);
+        }
+
+        List<Task> shifted = manager.shiftAfter(LocalDateTime.of(2025, 7, 16, 10, 0), Duration.ofDays(1));
+        assertEquals(List.of(created.get(2).getId(), created.get(3).getId()),
+                shifted.stream().map(Task::getId).toList(), "Должны сдвинуться задачи начиная с момента сдвига");
+        assertEquals(LocalDateTime.of(2025, 7, 17, 11, 0),
+                manager.getTaskById(created.get(3).getId()).orElseThrow().getStartTime(), "Время должно сдвинуться");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 9, 0),
+                manager.getTaskById(created.get(1).getId()).orElseThrow().getStartTime(),
+                "Задачи до момента сдвига не должны меняться");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 9, 30),
+                manager.findFreeSlot(LocalDateTime.of(2025, 7, 16, 9, 0), Duration.ofHours(3)),
+                "Освободившееся время должно стать доступным");
+
+        manager.shiftAfter(LocalDateTime.of(2025, 7, 17, 0, 0), Duration.ofMinutes(-(24 * 60 + 30)));
+        assertEquals(LocalDateTime.of(2025, 7, 16, 9, 30),
+                manager.getPrioritizedTasks().get(2).getStartTime(), "Сдвиг назад до границы должен быть разрешён");
+    }
+
+    @Test
+    void testShiftAfterRejectsOverlapAtBoundary() {
+        Task before = new Task(0, "Before", "Details", TaskStatus.NEW);
+        before.setStartTime(LocalDateTime.of(2025, 7, 16, 8, 0));
+        before.setDuration(Duration.ofHours(1));
+        Task after = new Task(0, "After", "Details", TaskStatus.NEW);
+        after.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 0));
+        after.setDuration(Duration.ofHours(1));
+        manager.createTask(before);
+        manager.createTask(after);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> manager.shiftAfter(LocalDateTime.of(2025, 7, 16, 10, 0), Duration.ofMinutes(-90)),
+                "Сдвиг на предыдущую задачу должен отклоняться");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 10, 0),
+                manager.getTaskById(after.getId()).orElseThrow().getStartTime(),
+                "После отказа расписание не должно меняться");
+        assertTrue(manager.shiftAfter(LocalDateTime.of(2025, 7, 16, 12, 0), Duration.ofHours(1)).isEmpty(),
+                "Сдвиг пустого хвоста ничего не меняет");
+    }
+
     @Test
     void testGetPrioritizedTasksEmpty() {
         List<Task> prioritized = manager.getPrioritizedTasks();
@@ -534,4 +683,221 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         Epic retrieved = retrievedOpt.get();
         assertEquals(TaskStatus.NEW, retrieved.getStatus(), "Статус эпика должен быть NEW, если нет подзадач");
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEpicAggregatesFollowSubTaskChanges() {
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        SubTask first = new SubTask(0, "First", "Details", TaskStatus.NEW, epic.getId());
+        first.setStartTime(LocalDateTime.of(2025, 7, 16, 9, 0));
+        first.setDuration(Duration.ofHours(1));
+        SubTask second = new SubTask(0, "Second", "Details", TaskStatus.NEW, epic.getId());
+        second.setStartTime(LocalDateTime.of(2025, 7, 16, 12, 0));
+        second.setDuration(Duration.ofHours(2));
+        manager.createSubTask(first);
+        manager.createSubTask(second);
+
+        assertEquals(LocalDateTime.of(2025, 7, 16, 9, 0), manager.getEpicStartTime(epic.getId()), "Начало эпика");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 14, 0), manager.getEpicEndTime(epic.getId()), "Конец эпика");
+        assertEquals(Duration.ofHours(3), manager.getEpicDuration(epic.getId()), "Длительность эпика");
+
+        first.setStatus(TaskStatus.DONE);
+        first.setStartTime(LocalDateTime.of(2025, 7, 16, 15, 0));
+        manager.updateSubTask(first);
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                "Изменение той же подзадачи должно учитываться в статусе");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 12, 0), manager.getEpicStartTime(epic.getId()),
+                "Начало эпика должно пересчитаться");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 16, 0), manager.getEpicEndTime(epic.getId()),
+                "Конец эпика должен пересчитаться");
+
+        manager.deleteSubTaskById(second.getId());
+        assertEquals(TaskStatus.DONE, manager.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                "После удаления остаётся только выполненная подзадача");
+        assertEquals(Duration.ofHours(1), manager.getEpicDuration(epic.getId()), "Длительность должна уменьшиться");
+
+        manager.deleteAllSubTasks();
+        assertNull(manager.getEpicStartTime(epic.getId()), "У эпика без подзадач нет начала");
+        assertEquals(Duration.ZERO, manager.getEpicDuration(epic.getId()), "Длительность пустого эпика нулевая");
+        assertNull(manager.getEpicDuration(999), "У несуществующего эпика нет длительности");
+    }
+
+    @Test
+    void testMovingSubTaskBetweenEpicsUpdatesBoth() {
+        Epic source = new Epic(0, "Source", "Details", TaskStatus.NEW);
+        Epic target = new Epic(0, "Target", "Details", TaskStatus.NEW);
+        manager.createEpic(source);
+        manager.createEpic(target);
+        SubTask subTask = new SubTask(0, "SubTask", "Details", TaskStatus.DONE, source.getId());
+        subTask.setStartTime(LocalDateTime.of(2025, 7, 16, 9, 0));
+        subTask.setDuration(Duration.ofHours(1));
+        manager.createSubTask(subTask);
+
+        SubTask moved = new SubTask(subTask.getId(), "SubTask", "Details", TaskStatus.DONE, target.getId());
+        moved.setStartTime(subTask.getStartTime());
+        moved.setDuration(subTask.getDuration());
+        manager.updateSubTask(moved);
+
+        assertTrue(manager.getSubTasksOfEpic(source.getId()).isEmpty(), "Подзадача должна уйти из старого эпика");
+        assertEquals(List.of(moved), manager.getSubTasksOfEpic(target.getId()), "Подзадача должна перейти в новый эпик");
+        assertEquals(TaskStatus.NEW, manager.getEpicById(source.getId()).orElseThrow().getStatus(),
+                "Старый эпик без подзадач должен стать NEW");
+        assertEquals(TaskStatus.DONE, manager.getEpicById(target.getId()).orElseThrow().getStatus(),
+                "Новый эпик должен получить статус подзадачи");
+        assertNull(manager.getEpicStartTime(source.getId()), "У старого эпика не должно остаться времени");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 10, 0), manager.getEpicEndTime(target.getId()),
+                "Новый эпик должен получить время подзадачи");
+    }
+
+    @Test
+    void testUpdateEpicKeepsSubTasks() {
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        SubTask subTask = new SubTask(0, "SubTask", "Details", TaskStatus.IN_PROGRESS, epic.getId());
+        manager.createSubTask(subTask);
+
+        manager.updateEpic(new Epic(epic.getId(), "Renamed", "Details", TaskStatus.NEW));
+
+        assertEquals(List.of(subTask), manager.getSubTasksOfEpic(epic.getId()), "Подзадачи эпика должны сохраниться");
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                "Статус эпика должен вычисляться по подзадачам");
+    }
+
+    @Test
+    void testGetAnyByIdFindsEveryType() {
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        manager.createTask(task);
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        SubTask subTask = new SubTask(0, "SubTask", "Details", TaskStatus.NEW, epic.getId());
+        manager.createSubTask(subTask);
+
+        assertEquals(TaskType.TASK, manager.getAnyById(task.getId()).orElseThrow().getType(), "Должна найтись задача");
+        assertEquals(TaskType.EPIC, manager.getAnyById(epic.getId()).orElseThrow().getType(), "Должен найтись эпик");
+        assertEquals(TaskType.SUBTASK, manager.getAnyById(subTask.getId()).orElseThrow().getType(),
+                "Должна найтись подзадача");
+        assertEquals(List.of(task.getId(), epic.getId(), subTask.getId()),
+                manager.getHistory().stream().map(Task::getId).toList(), "Просмотры должны попадать в историю");
+
+        manager.deleteEpicById(epic.getId());
+        assertTrue(manager.getAnyById(epic.getId()).isEmpty(), "Удалённый эпик не должен находиться");
+        assertTrue(manager.getAnyById(subTask.getId()).isEmpty(), "Подзадачи удалённого эпика не должны находиться");
+        manager.deleteAllTasks();
+        assertTrue(manager.getAnyById(task.getId()).isEmpty(), "Очищенные задачи не должны находиться");
+    }
+
+    @Test
+    void testApplyBatchCreatesEpicWithSubTasks() {
+        Epic epic = new Epic(100, "Epic", "Details", TaskStatus.NEW);
+        TaskBatch batch = new TaskBatch().create(epic);
+        for (int i = 1; i <= 50; i++) {
+            SubTask subTask = new SubTask(100 + i, "SubTask" + i, "Details", TaskStatus.DONE, epic.getId());
+            subTask.setStartTime(LocalDateTime.of(2025, 7, 16, 8, 0).plusMinutes(30L * i));
+            subTask.setDuration(Duration.ofMinutes(30));
+            batch.create(subTask);
+        }
+        manager.apply(batch);
+
+        assertEquals(50, manager.getSubTasksOfEpic(epic.getId()).size(), "Все подзадачи должны быть созданы");
+        assertEquals(50, manager.getPrioritizedTasks().size(), "Подзадачи должны попасть в расписание");
+        assertEquals(TaskStatus.DONE, manager.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                "Статус эпика должен быть пересчитан");
+        assertEquals(Duration.ofMinutes(50 * 30), manager.getEpicDuration(epic.getId()),
+                "Длительность эпика должна учитывать все подзадачи");
+        Task next = new Task(0, "Next", "Details", TaskStatus.NEW);
+        manager.createTask(next);
+        assertTrue(next.getId() > 150, "Новые id должны выдаваться после id из пакета");
+    }
+
+    @Test
+    void testApplyBatchValidatesOverlapsAsSet() {
+        Task first = new Task(0, "First", "Details", TaskStatus.NEW);
+        first.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 0));
+        first.setDuration(Duration.ofMinutes(30));
+        Task second = new Task(0, "Second", "Details", TaskStatus.NEW);
+        second.setStartTime(LocalDateTime.of(2025, 7, 16, 11, 0));
+        second.setDuration(Duration.ofMinutes(30));
+        manager.createTask(first);
+        manager.createTask(second);
+
+        Task movedFirst = new Task(first.getId(), "First", "Details", TaskStatus.NEW);
+        movedFirst.setStartTime(second.getStartTime());
+        movedFirst.setDuration(Duration.ofMinutes(30));
+        Task movedSecond = new Task(second.getId(), "Second", "Details", TaskStatus.NEW);
+        movedSecond.setStartTime(first.getStartTime());
+        movedSecond.setDuration(Duration.ofMinutes(30));
+        manager.apply(new TaskBatch().update(movedFirst).update(movedSecond));
+
+        assertEquals(List.of(second.getId(), first.getId()),
+                manager.getPrioritizedTasks().stream().map(Task::getId).toList(), "Задачи должны поменяться местами");
+    }
+
+    @Test
+    void testApplyBatchRollsBackOnConflict() {
+        Task kept = new Task(0, "Kept", "Details", TaskStatus.NEW);
+        kept.setStartTime(LocalDateTime.of(2025, 7, 16, 9, 0));
+        kept.setDuration(Duration.ofHours(1));
+        manager.createTask(kept);
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        SubTask first = new SubTask(0, "First", "Details", TaskStatus.DONE, epic.getId());
+        SubTask second = new SubTask(0, "Second", "Details", TaskStatus.NEW, epic.getId());
+        manager.createSubTask(first);
+        manager.createSubTask(second);
+        manager.getTaskById(kept.getId());
+        manager.getSubTaskById(first.getId());
+        List<Task> history = manager.getHistory();
+        List<Task> prioritized = manager.getPrioritizedTasks();
+
+        Task created = new Task(0, "Created", "Details", TaskStatus.NEW);
+        created.setStartTime(LocalDateTime.of(2025, 7, 16, 12, 0));
+        created.setDuration(Duration.ofHours(1));
+        Task conflicting = new Task(0, "Conflicting", "Details", TaskStatus.NEW);
+        conflicting.setStartTime(LocalDateTime.of(2025, 7, 16, 12, 30));
+        conflicting.setDuration(Duration.ofHours(1));
+        TaskBatch batch = new TaskBatch()
+                .create(created)
+                .delete(kept.getId())
+                .delete(first.getId())
+                .update(new SubTask(second.getId(), "Second", "Details", TaskStatus.DONE, epic.getId()))
+                .create(conflicting);
+
+        assertThrows(IllegalArgumentException.class, () -> manager.apply(batch), "Пересечение должно отклонить пакет");
+        assertEquals(List.of("Kept"), manager.getAllTasks().stream().map(Task::getTitle).toList(),
+                "Задачи должны вернуться к исходному состоянию");
+        assertEquals(List.of(first.getId(), second.getId()),
+                manager.getSubTasksOfEpic(epic.getId()).stream().map(Task::getId).toList(),
+                "Порядок подзадач эпика должен сохраниться");
+        assertEquals(TaskStatus.NEW, manager.getSubTaskById(second.getId()).orElseThrow().getStatus(),
+                "Обновление подзадачи должно быть отменено");
+        assertEquals(TaskStatus.IN_PROGRESS, manager.getEpicById(epic.getId()).orElseThrow().getStatus(),
+                "Статус эпика должен быть восстановлен");
+        assertEquals(prioritized, manager.getPrioritizedTasks(), "Расписание должно быть восстановлено");
+        assertEquals(history.stream().map(Task::getId).toList(),
+                manager.getHistory().stream().map(Task::getId).limit(history.size()).toList(),
+                "История не должна терять записи");
+        assertFalse(manager.findFreeSlot(LocalDateTime.of(2025, 7, 16, 9, 0), Duration.ofMinutes(30))
+                .isBefore(LocalDateTime.of(2025, 7, 16, 10, 0)), "Время задачи должно остаться занятым");
+    }
+
+    @Test
+    void testApplyBatchRejectsUnknownUpdateAndRemovesHistoryOnCommit() {
+        Task task = new Task(0, "Task", "Details", TaskStatus.NEW);
+        manager.createTask(task);
+        Epic epic = new Epic(0, "Epic", "Details", TaskStatus.NEW);
+        manager.createEpic(epic);
+        manager.getTaskById(task.getId());
+
+        TaskBatch invalid = new TaskBatch()
+                .delete(task.getId())
+                .update(new Task(999, "Missing", "Details", TaskStatus.NEW));
+        assertThrows(IllegalArgumentException.class, () -> manager.apply(invalid),
+                "Обновление несуществующей задачи должно отклонить пакет");
+        assertTrue(manager.getTaskById(task.getId()).isPresent(), "Удаление должно быть отменено");
+
+        manager.apply(new TaskBatch().delete(task.getId()).delete(epic.getId()));
+        assertTrue(manager.getAllTasks().isEmpty(), "Задача должна быть удалена");
+        assertTrue(manager.getAllEpics().isEmpty(), "Эпик должен быть удалён");
+        assertTrue(manager.getHistory().isEmpty(), "Удалённые задачи должны исчезнуть из истории");
+    }
+}
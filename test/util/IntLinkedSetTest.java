@@ -0,0 +1,46 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLinkedSetTest {
+
+    @Test
+    void testKeepsInsertionOrder() {
+        IntLinkedSet set = new IntLinkedSet();
+        assertTrue(set.add(5), "Новый элемент должен добавиться");
+        set.add(1);
+        set.add(3);
+        assertFalse(set.add(1), "Повторный элемент не должен добавиться");
+        assertTrue(set.remove(1), "Элемент должен удалиться");
+        set.add(1);
+        assertEquals(List.of(5, 3, 1), set.toList(), "Порядок должен соответствовать порядку добавления");
+        assertFalse(set.remove(42), "Отсутствующий элемент не удаляется");
+        set.clear();
+        assertTrue(set.isEmpty(), "После очистки множество должно быть пустым");
+    }
+
+    @Test
+    void testMatchesLinkedHashSetOnRandomOperations() {
+        Random random = new Random(5);
+        IntLinkedSet set = new IntLinkedSet();
+        Set<Integer> expected = new LinkedHashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(key), set.add(key), "add должен совпадать с LinkedHashSet");
+            } else {
+                assertEquals(expected.remove(key), set.remove(key), "remove должен совпадать с LinkedHashSet");
+            }
+        }
+        assertEquals(new ArrayList<>(expected), set.toList(), "Порядок обхода должен совпадать");
+        assertEquals(expected.size(), set.size(), "Размер должен совпадать");
+    }
+}
@@ -0,0 +1,53 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectMapTest {
+
+    @Test
+    void testPutGetRemove() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        assertNull(map.put(1, "one"), "Новый ключ не должен возвращать старое значение");
+        assertEquals("one", map.put(1, "uno"), "Замена должна вернуть старое значение");
+        assertEquals("uno", map.get(1), "Значение должно обновиться");
+        assertTrue(map.containsKey(1), "Ключ должен находиться");
+        assertEquals("uno", map.remove(1), "Удаление должно вернуть значение");
+        assertNull(map.get(1), "После удаления значения быть не должно");
+        assertTrue(map.isEmpty(), "Карта должна стать пустой");
+        assertThrows(IllegalArgumentException.class, () -> map.put(2, null), "null-значения не допускаются");
+    }
+
+    @Test
+    void testSequentialKeysIterateInOrder() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int id = 1; id <= 10; id++) {
+            map.put(id, "Task" + id);
+        }
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10), List.copyOf(map.keySet()),
+                "Последовательные id должны обходиться по возрастанию");
+        assertEquals(10, map.values().size(), "Размер представления значений должен совпадать");
+    }
+
+    @Test
+    void testMatchesHashMapOnRandomOperations() {
+        Random random = new Random(11);
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(5000) - 100;
+            switch (random.nextInt(3)) {
+                case 0 -> assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i), "put должен совпадать с HashMap");
+                case 1 -> assertEquals(expected.remove(key), map.remove(key), "remove должен совпадать с HashMap");
+                default -> assertEquals(expected.get(key), map.get(key), "get должен совпадать с HashMap");
+            }
+        }
+        assertEquals(expected, map, "Содержимое должно совпадать с HashMap");
+    }
+}
@@ -0,0 +1,81 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSortedMapTest {
+
+    @Test
+    void testOldVersionsStayUnchanged() {
+        PersistentSortedMap<Integer, String> empty = PersistentSortedMap.empty(Integer::compare);
+        PersistentSortedMap<Integer, String> first = empty.put(2, "b").put(1, "a");
+        PersistentSortedMap<Integer, String> second = first.put(3, "c").remove(1).put(2, "B");
+
+        assertTrue(empty.isEmpty(), "Пустая версия должна остаться пустой");
+        assertEquals(List.of("a", "b"), first.values(), "Первая версия не должна меняться");
+        assertEquals(List.of("B", "c"), second.values(), "Вторая версия должна содержать изменения");
+        assertSame(second, second.remove(42), "Удаление отсутствующего ключа не создаёт версию");
+        assertThrows(UnsupportedOperationException.class, () -> first.values().add("x"));
+    }
+
+    @Test
+    void testMatchesTreeMapOnRandomOperations() {
+        Random random = new Random(11);
+        PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.empty(Integer::compare);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        List<PersistentSortedMap<Integer, Integer>> versions = new ArrayList<>();
+        List<List<Integer>> expectedVersions = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                map = map.put(key, i);
+                expected.put(key, i);
+            } else {
+                map = map.remove(key);
+                expected.remove(key);
+            }
+            assertEquals(expected.get(key), map.get(key), "get должен совпадать с TreeMap");
+            if (i % 1000 == 0) {
+                versions.add(map);
+                expectedVersions.add(new ArrayList<>(expected.values()));
+            }
+        }
+        assertEquals(expected.size(), map.size(), "Размер должен совпадать с TreeMap");
+        assertEquals(new ArrayList<>(expected.values()), map.values(), "Порядок должен совпадать с TreeMap");
+        List<Integer> values = map.values();
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i), new ArrayList<>(expected.values()).get(i), "Доступ по индексу должен работать");
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(expectedVersions.get(i), versions.get(i).values(), "Старые версии должны сохраниться");
+        }
+    }
+
+    @Test
+    void testRangeIteratorsMatchTreeMap() {
+        Random random = new Random(17);
+        PersistentSortedMap<Integer, Integer> map = PersistentSortedMap.empty(Integer::compare);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 300; i++) {
+            int key = random.nextInt(1000);
+            map = map.put(key, key);
+            expected.put(key, key);
+        }
+        for (int bound = -1; bound <= 1001; bound += 7) {
+            List<Integer> from = new ArrayList<>();
+            map.valuesFrom(bound).forEachRemaining(from::add);
+            assertEquals(new ArrayList<>(expected.tailMap(bound, true).values()), from,
+                    "Обход с ключа должен совпадать с TreeMap");
+            List<Integer> before = new ArrayList<>();
+            map.valuesBefore(bound).forEachRemaining(before::add);
+            assertEquals(new ArrayList<>(expected.headMap(bound, false).descendingMap().values()), before,
+                    "Обратный обход до ключа должен совпадать с TreeMap");
+        }
+    }
+}
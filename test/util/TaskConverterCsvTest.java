@@ -0,0 +1,84 @@
+package util;
+
+import model.Epic;
+import model.SubTask;
+import model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskConverterCsvTest {
+    @Test
+    void testRoundTripWithSeparatorsInText() {
+        Task task = new Task(7, "Купить, продать", "Строка 1\nСтрока 2\r\\конец", TaskStatus.IN_PROGRESS);
+        task.setStartTime(LocalDateTime.of(2025, 7, 16, 10, 5, 30));
+        task.setDuration(Duration.ofMinutes(90));
+
+        String line = TaskConverterCsv.toString(task);
+        assertFalse(line.contains("\n"), "Запись должна оставаться одной строкой");
+
+        Task parsed = TaskConverterCsv.fromString(line);
+        assertEquals(task.getTitle(), parsed.getTitle(), "Запятая в названии должна сохраниться");
+        assertEquals(task.getDetails(), parsed.getDetails(), "Переводы строк в описании должны сохраниться");
+        assertEquals(task.getStatus(), parsed.getStatus(), "Статус должен совпадать");
+        assertEquals(task.getStartTime(), parsed.getStartTime(), "Время начала должно совпадать");
+        assertEquals(task.getDuration(), parsed.getDuration(), "Длительность должна совпадать");
+    }
+
+    @Test
+    void testParseInPlaceFromReusedBuffer() {
+        Epic epic = new Epic(1, "Epic", "Details", TaskStatus.NEW);
+        SubTask subTask = new SubTask(2, "Sub", "Details", TaskStatus.DONE, 1);
+        subTask.setStartTime(LocalDateTime.of(2025, 7, 16, 12, 0, 0, 5000));
+        subTask.setDuration(Duration.ofMillis(1500));
+
+        StringBuilder buffer = new StringBuilder();
+        TaskConverterCsv.append(buffer, epic).append('\n');
+        int second = buffer.length();
+        TaskConverterCsv.append(buffer, subTask);
+
+        Task parsedEpic = TaskConverterCsv.parse(buffer, 0, second - 1);
+        Task parsedSub = TaskConverterCsv.parse(buffer, second, buffer.length());
+        assertInstanceOf(Epic.class, parsedEpic, "Тип должен определяться по полю type");
+        assertNull(parsedEpic.getStartTime(), "Пустое время начала должно читаться как null");
+        assertEquals(1, ((SubTask) parsedSub).getEpicId(), "ID эпика должен совпадать");
+        assertEquals(subTask.getStartTime(), parsedSub.getStartTime(), "Наносекунды должны сохраниться");
+        assertEquals(subTask.getDuration(), parsedSub.getDuration(), "Дробная длительность должна сохраниться");
+    }
+
+    @Test
+    void testParseLegacyRows() {
+        Task legacy = TaskConverterCsv.fromString("1,TASK,Задача 1,NEW,Описание,");
+        assertEquals("Задача 1", legacy.getTitle(), "Строки без полей времени должны читаться");
+        assertNull(legacy.getDuration(), "Отсутствующая длительность должна быть null");
+
+        Task iso = TaskConverterCsv.fromString("5,SUBTASK,Sub,DONE,Details,3,PT1H30M,2025-07-16T12:00");
+        assertEquals(Duration.ofMinutes(90), iso.getDuration(), "Длительность в формате ISO должна читаться");
+        assertEquals(LocalDateTime.of(2025, 7, 16, 12, 0), iso.getStartTime(), "Время начала должно читаться");
+    }
+
+    @Test
+    void testBackslashesInLegacyRowsAreReadVerbatim() {
+        Task legacy = TaskConverterCsv.fromString("3,TASK,C:\\new,NEW,\\\\server\\share\\r1,,,");
+        assertEquals("C:\\new", legacy.getTitle(), "Обратная косая черта в старой строке не должна экранировать");
+        assertEquals("\\\\server\\share\\r1", legacy.getDetails(), "Описание старой строки должно читаться как есть");
+
+        Task task = new Task(4, "C:\\new", "Details", TaskStatus.NEW);
+        String line = TaskConverterCsv.toString(task);
+        assertEquals("4,TASK,C:\\new,NEW,Details,,,", line, "Строка без разделителей должна писаться в старом формате");
+        assertEquals(task.getTitle(), TaskConverterCsv.fromString(line).getTitle(), "Название должно сохраниться");
+    }
+
+    @Test
+    void testRejectMalformedRows() {
+        assertThrows(IllegalArgumentException.class, () -> TaskConverterCsv.fromString("1,TASK,Name"),
+                "Строка без обязательных полей должна отклоняться");
+        assertThrows(IllegalArgumentException.class, () -> TaskConverterCsv.fromString("x,TASK,Name,NEW,Details,"),
+                "Нечисловой id должен отклоняться");
+        assertThrows(IllegalArgumentException.class, () -> TaskConverterCsv.fromString("1,STORY,Name,NEW,Details,"),
+                "Неизвестный тип должен отклоняться");
+    }
+}